@@ -25,6 +25,11 @@ configurations.compileClasspath {
     attributes.attribute(TargetJvmVersion.TARGET_JVM_VERSION_ATTRIBUTE, 11)
 }
 
+val testPluginClasspath = configurations.create("testPluginClasspath") {
+    isCanBeConsumed = false
+    attributes.attribute(Usage.USAGE_ATTRIBUTE, objects.named(Usage.JAVA_RUNTIME))
+}
+
 dependencies {
     implementation("org.ow2.asm:asm:9.7.1")
 
@@ -34,6 +39,13 @@ dependencies {
     testImplementation("org.spockframework:spock-core:2.1-groovy-3.0")
     testImplementation("org.gradle.exemplar:samples-check:1.0.2")
     testRuntimeOnly("org.junit.vintage:junit-vintage-engine")
+
+    // Plugins the bridges integrate with, available to the builds under test
+    testPluginClasspath("com.autonomousapps:dependency-analysis-gradle-plugin:2.1.4")
+}
+
+tasks.pluginUnderTestMetadata {
+    pluginClasspath.from(testPluginClasspath)
 }
 
 pluginPublishConventions {
@@ -1,3 +1,4 @@
+import gradlexbuild.ModuleMappingsIndexGenerate
 import gradlexbuild.UniqueModulesPropertiesUpdate
 import org.gradle.api.internal.project.ProjectInternal
 
@@ -28,9 +29,19 @@ val updateUniqueModulesProperties = tasks.register<UniqueModulesPropertiesUpdate
     )
 }
 
+val generateModuleMappingsIndex = tasks.register<ModuleMappingsIndexGenerate>("generateModuleMappingsIndex") {
+    // order matters: later files must not redefine entries of earlier ones
+    mappingProperties.from(updateUniqueModulesProperties.flatMap { it.uniqueModulesProperties })
+    mappingProperties.from(layout.projectDirectory.file(
+        "src/main/resources/org/gradlex/javamodule/dependencies/modules.properties")
+    )
+    indexPath.set("org/gradlex/javamodule/dependencies/module_mappings.bin")
+    outputDirectory.set(layout.buildDirectory.dir("generated/module-mappings"))
+}
+
 sourceSets.main {
     resources.setSrcDirs(listOf(updateUniqueModulesProperties.map {
         it.uniqueModulesProperties.get().asFile.parentFile.parentFile.parentFile.parentFile.parentFile
-    }))
+    }, generateModuleMappingsIndex))
 }
 
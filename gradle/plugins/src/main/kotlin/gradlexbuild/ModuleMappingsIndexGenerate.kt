@@ -0,0 +1,122 @@
+package gradlexbuild
+
+import org.gradle.api.DefaultTask
+import org.gradle.api.file.ConfigurableFileCollection
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.provider.Property
+import org.gradle.api.tasks.CacheableTask
+import org.gradle.api.tasks.Input
+import org.gradle.api.tasks.InputFiles
+import org.gradle.api.tasks.OutputDirectory
+import org.gradle.api.tasks.PathSensitive
+import org.gradle.api.tasks.PathSensitivity
+import org.gradle.api.tasks.TaskAction
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.util.Properties
+
+/**
+ * Compiles the 'Module Name -> group:artifact' properties files into the binary index read by
+ * 'org.gradlex.javamodule.dependencies.internal.utils.ModuleMappingIndex'. The layout is documented there.
+ */
+@CacheableTask
+abstract class ModuleMappingsIndexGenerate : DefaultTask() {
+
+    @get:InputFiles
+    @get:PathSensitive(PathSensitivity.NONE)
+    abstract val mappingProperties: ConfigurableFileCollection
+
+    @get:Input
+    abstract val indexPath: Property<String>
+
+    @get:OutputDirectory
+    abstract val outputDirectory: DirectoryProperty
+
+    @TaskAction
+    fun generate() {
+        val properties = object : Properties() {
+            @Synchronized
+            override fun put(key: Any, value: Any): Any? {
+                if (get(key) != null) {
+                    throw IllegalArgumentException("$key already present.")
+                }
+                return super.put(key, value)
+            }
+        }
+        mappingProperties.forEach { file -> file.inputStream().use { properties.load(it) } }
+
+        val entries = properties.entries.map { Entry(it.key.toString().toByteArray(), it.value.toString()) }
+            .sortedWith { e1, e2 -> compareUnsigned(e1.key, e2.key) }
+        val groups = entries.mapNotNull { it.group }.distinct().sorted()
+        val groupIndex = groups.withIndex().associate { it.value to it.index }
+        require(groups.size < NO_GROUP) { "Too many groups: ${groups.size}" }
+
+        val groupData = ByteArrayOutputStream()
+        val groupOffsets = groups.map { group ->
+            val offset = groupData.size()
+            groupData.write(group.toByteArray())
+            offset
+        }
+
+        val entryData = ByteArrayOutputStream()
+        val entryOut = DataOutputStream(entryData)
+        val blockOffsets = mutableListOf<Int>()
+        entries.forEachIndexed { i, entry ->
+            val shared = if (i % BLOCK_SIZE == 0) {
+                blockOffsets.add(entryData.size())
+                0
+            } else {
+                minOf(sharedPrefixLength(entries[i - 1].key, entry.key), 255)
+            }
+            entryOut.writeByte(shared)
+            entryOut.writeShort(entry.key.size - shared)
+            entryOut.write(entry.key, shared, entry.key.size - shared)
+            entryOut.writeShort(entry.group?.let { groupIndex.getValue(it) } ?: NO_GROUP)
+            val artifact = entry.artifact.toByteArray()
+            entryOut.writeShort(artifact.size)
+            entryOut.write(artifact)
+        }
+
+        val index = outputDirectory.file(indexPath).get().asFile
+        index.parentFile.mkdirs()
+        DataOutputStream(index.outputStream().buffered()).use { out ->
+            out.writeInt(MAGIC)
+            out.writeInt(entries.size)
+            out.writeInt(BLOCK_SIZE)
+            out.writeInt(entries.maxOfOrNull { it.key.size } ?: 0)
+            out.writeInt(groups.size)
+            groupOffsets.forEach { out.writeInt(it) }
+            out.writeInt(groupData.size())
+            groupData.writeTo(out)
+            out.writeInt(blockOffsets.size)
+            blockOffsets.forEach { out.writeInt(it) }
+            entryData.writeTo(out)
+        }
+    }
+
+    private fun compareUnsigned(b1: ByteArray, b2: ByteArray): Int {
+        for (i in 0 until minOf(b1.size, b2.size)) {
+            val c = (b1[i].toInt() and 0xFF) - (b2[i].toInt() and 0xFF)
+            if (c != 0) return c
+        }
+        return b1.size - b2.size
+    }
+
+    private fun sharedPrefixLength(b1: ByteArray, b2: ByteArray): Int {
+        var i = 0
+        while (i < b1.size && i < b2.size && b1[i] == b2[i]) i++
+        return i
+    }
+
+    class Entry(val key: ByteArray, value: String) {
+        val group: String? = if (value.contains(":")) value.substring(0, value.indexOf(":")) else null
+        val artifact: String = if (group == null) value else value.substring(group.length + 1)
+    }
+
+    companion object {
+        // must match ModuleMappingIndex.MAGIC, which is checked by ModuleMappingIndexTest
+        const val MAGIC = 0x4A4D4D49 // 'JMMI'
+        const val BLOCK_SIZE = 16
+        const val NO_GROUP = 0xFFFF
+    }
+}
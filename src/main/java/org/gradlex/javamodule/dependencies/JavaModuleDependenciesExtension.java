@@ -43,10 +43,18 @@ import org.gradle.api.provider.ProviderFactory;
 import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.SourceSetContainer;
 import org.gradle.api.tasks.TaskProvider;
+import org.gradlex.javamodule.dependencies.internal.utils.InvertedMapping;
+import org.gradlex.javamodule.dependencies.internal.utils.MapPropertyIndex;
+import org.gradlex.javamodule.dependencies.internal.utils.ModuleGraph;
 import org.gradlex.javamodule.dependencies.internal.utils.ModuleInfo;
 import org.gradlex.javamodule.dependencies.internal.utils.ModuleInfoCache;
+import org.gradlex.javamodule.dependencies.internal.utils.ModuleNameLookup;
+import org.gradlex.javamodule.dependencies.internal.utils.PrefixMapping;
+import org.gradlex.javamodule.dependencies.internal.utils.ProjectNamesIndex;
+import org.gradlex.javamodule.dependencies.internal.utils.SharedMappingsSnapshot;
 import org.gradlex.javamodule.dependencies.tasks.SyntheticModuleInfoFoldersGenerate;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.CharArrayReader;
 import java.io.File;
@@ -54,8 +62,8 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -76,10 +84,20 @@ public abstract class JavaModuleDependenciesExtension {
     static final String JAVA_MODULE_DEPENDENCIES = "javaModuleDependencies";
     private static final String INTERNAL = "internal";
 
+    private static volatile ParsedModulesProperties lastModulesProperties;
+
     private final VersionCatalogsExtension versionCatalogs;
+    private final MapPropertyIndex<ModuleNameLookup> moduleNameLookup;
+    private final MapPropertyIndex<InvertedMapping> moduleNamePrefixToGroupInverted;
+    private final MapPropertyIndex<PrefixMapping> moduleNamePrefixToGroupTrie;
 
     public abstract Property<ModuleInfoCache> getModuleInfoCache();
 
+    /**
+     * All Modules of the build; only present if the Modules are registered in settings.
+     */
+    public abstract Property<ModuleGraph> getModuleGraph();
+
     /**
      * Custom mappings can be defined in a property files in your build.
      * The default location for this file is 'gradle/modules.properties' (relative to root project).
@@ -91,6 +109,9 @@ public abstract class JavaModuleDependenciesExtension {
      * Register mapping from Module Name to GA Coordinates (and optionally Capability Coordinates).
      * - moduleNameToGA.put("org.slf4j", "org.slf4j:slf4j-api")
      * - moduleNameToGA.put("org.slf4j.test.fixtures", "org.slf4j:slf4j-api|org.slf4j:slf4j-api-test-fixtures")
+     * <p>
+     * The property also contains the mappings shipped with the plugin ({@link SharedMappings}) and the ones from
+     * {@link #getModulesProperties()}. Mappings registered here take precedence.
      *
      * @return the mappings from Module Name to GA coordinates; can be modified
      */
@@ -140,22 +161,36 @@ public abstract class JavaModuleDependenciesExtension {
         getVersionCatalogName().convention("libs");
         getModuleNameCheck().convention(true);
         getAnalyseOnly().convention(false);
-        getModuleNameToGA().putAll(SharedMappings.mappings);
+        getModuleNameToGA().putAll(getProviders().provider(() -> SharedMappingsSnapshot.get().mappings()));
         getModuleNameToGA().putAll(parsedModulesProperties().orElse(Collections.emptyMap()));
+        this.moduleNameLookup = new MapPropertyIndex<>(getModuleNameToGA(), all -> new ModuleNameLookup(withoutSharedMappings(all)));
+        this.moduleNamePrefixToGroupInverted = new MapPropertyIndex<>(getModuleNamePrefixToGroup(), InvertedMapping::new);
+        this.moduleNamePrefixToGroupTrie = new MapPropertyIndex<>(getModuleNamePrefixToGroup(), PrefixMapping::new);
     }
 
     private Provider<Map<String, String>> parsedModulesProperties() {
-        return getProviders().fileContents(getModulesProperties()).getAsText().map(c -> {
+        return getProviders().fileContents(getModulesProperties()).getAsText().map(JavaModuleDependenciesExtension::parseModulesProperties);
+    }
+
+    /**
+     * All projects of a build usually use the same 'modules.properties' file. The result of parsing it is reused
+     * as long as the content does not change.
+     */
+    private static Map<String, String> parseModulesProperties(String content) {
+        ParsedModulesProperties last = lastModulesProperties;
+        if (last == null || !last.content.equals(content)) {
             Properties p = new Properties();
             try {
-                p.load(new CharArrayReader(c.toCharArray()));
+                p.load(new CharArrayReader(content.toCharArray()));
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
             @SuppressWarnings({"rawtypes", "unchecked"})
             Map<String, String> result = (Map) p;
-            return result;
-        });
+            last = new ParsedModulesProperties(content, Collections.unmodifiableMap(new HashMap<>(result)));
+            lastModulesProperties = last;
+        }
+        return last.mappings;
     }
 
     /**
@@ -166,7 +201,8 @@ public abstract class JavaModuleDependenciesExtension {
      * @return Dependency notation
      */
     public Provider<String> ga(String moduleName) {
-        return getModuleNameToGA().getting(moduleName).orElse(mapByPrefix(getProviders().provider(() -> moduleName))).orElse(errorIfNotFound(moduleName));
+        Provider<String> moduleNameProvider = getProviders().provider(() -> moduleName);
+        return mapping(moduleNameProvider).orElse(mapByPrefix(moduleNameProvider)).orElse(errorIfNotFound(moduleName));
     }
 
     /**
@@ -177,17 +213,39 @@ public abstract class JavaModuleDependenciesExtension {
      * @return Dependency notation
      */
     public Provider<String> ga(Provider<String> moduleName) {
-        return moduleName.flatMap(n -> getModuleNameToGA().getting(n)).orElse(mapByPrefix(moduleName)).orElse(errorIfNotFound(moduleName));
+        return mapping(moduleName).orElse(mapByPrefix(moduleName)).orElse(errorIfNotFound(moduleName));
+    }
+
+    private Provider<String> mapping(Provider<String> moduleName) {
+        return moduleName.flatMap(n -> getModuleNameToGA().getting(n));
+    }
+
+    /**
+     * @return the mappings of {@link #getModuleNameToGA()} without the ones shipped with the plugin, which tasks read
+     * directly from {@link SharedMappings}
+     */
+    Provider<Map<String, String>> projectModuleNameToGA() {
+        return getModuleNameToGA().map(JavaModuleDependenciesExtension::withoutSharedMappings);
+    }
+
+    private static Map<String, String> withoutSharedMappings(Map<String, String> all) {
+        Map<String, String> shared = SharedMappingsSnapshot.get().mappings();
+        Map<String, String> result = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : all.entrySet()) {
+            if (!entry.getValue().equals(shared.get(entry.getKey()))) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
     }
 
     private Provider<String> mapByPrefix(Provider<String> moduleName) {
         return getModuleNamePrefixToGroup().map(
                 m -> {
-                    Optional<Map.Entry<String, String>> prefixToGroup = m.entrySet().stream()
-                            .filter(e -> moduleName.get().startsWith(e.getKey())).max(Comparator.comparingInt(e -> e.getKey().length()));
-                    if (prefixToGroup.isPresent()) {
-                        String group = prefixToGroup.get().getValue();
-                        String artifact = toProjectName(moduleName.get().substring(prefixToGroup.get().getKey().length()));
+                    Map.Entry<String, String> prefixToGroup = moduleNamePrefixToGroupTrie.get(m).longestPrefix(moduleName.get());
+                    if (prefixToGroup != null) {
+                        String group = prefixToGroup.getValue();
+                        String artifact = toProjectName(moduleName.get().substring(prefixToGroup.getKey().length()));
                         return group + ":" + artifact;
                     }
                     return null;
@@ -196,53 +254,60 @@ public abstract class JavaModuleDependenciesExtension {
     }
 
     private String toProjectName(String moduleNameSuffix) {
-        List<String> allProjectNames = getProject().getRootProject().getSubprojects().stream().map(Project::getName).collect(Collectors.toList());
-
-        Optional<String> perfectMatch = allProjectNames.stream().filter(p -> p.replace("-", ".").equals(moduleNameSuffix)).findFirst();
-        Optional<String> existingProjectName = allProjectNames.stream().filter(p -> moduleNameSuffix != null && moduleNameSuffix.startsWith(p.replace("-", ".") + "."))
-                .max(Comparator.comparingInt(String::length));
-
-        if (perfectMatch.isPresent()) {
-            return perfectMatch.get();
-        } else if (existingProjectName.isPresent()) {
-            String capabilityClassifier = moduleNameSuffix.substring(existingProjectName.get().length() + 1).replace(".", "-");
-            return existingProjectName.get() + "|" + capabilityClassifier; // no exact match (assume last segment is capability)
+        ProjectNamesIndex projectNames = ProjectNamesIndex.get(getProject());
+        String perfectMatch = projectNames.perfectMatch(moduleNameSuffix);
+        String existingProjectName = projectNames.longestPrefixMatch(moduleNameSuffix);
+
+        if (perfectMatch != null) {
+            return perfectMatch;
+        } else if (existingProjectName != null) {
+            String capabilityClassifier = moduleNameSuffix.substring(existingProjectName.length() + 1).replace(".", "-");
+            return existingProjectName + "|" + capabilityClassifier; // no exact match (assume last segment is capability)
         }
 
         return moduleNameSuffix;
     }
 
     public Provider<Dependency> create(String moduleName, SourceSet sourceSetWithModuleInfo) {
-        if (getModuleInfoCache().get().isInitializedInSettings()) {
-            return createPrecise(moduleName, sourceSetWithModuleInfo);
+        if (getModuleGraph().isPresent()) {
+            return createPrecise(moduleName);
         } else {
             return createWithGuessing(moduleName, sourceSetWithModuleInfo);
         }
     }
 
-    private Provider<Dependency> createPrecise(String moduleName, SourceSet sourceSetWithModuleInfo) {
-        return getProviders().provider(() -> {
-            String projectPath = getModuleInfoCache().get().getProjectPath(moduleName);
-            String capability = getModuleInfoCache().get().getCapability(moduleName);
+    private Provider<Dependency> createPrecise(String moduleName) {
+        ModuleGraph moduleGraph = getModuleGraph().get();
+        String projectPath = moduleGraph.getProjectPath(moduleName);
+        if (projectPath != null) {
+            String capability = moduleGraph.getCapability(moduleName);
+            return getProviders().provider(() -> createProjectDependency(moduleName, projectPath, capability));
+        } else {
+            return getProviders().provider(() -> createExternalDependency(moduleName));
+        }
+    }
 
-            if (projectPath != null) {
-                // local project
-                ProjectDependency projectDependency = (ProjectDependency) getDependencies().create(getProject().project(projectPath));
-                projectDependency.because(moduleName);
-                if (capability != null) {
-                    projectDependency.capabilities(c -> c.requireCapabilities(capability));
-                }
-                return projectDependency;
-            } else {
-                return createExternalDependency(moduleName);
-            }
-        });
+    ProjectDependency createProjectDependency(String moduleName, String projectPath, @Nullable String capability) {
+        ProjectDependency projectDependency = (ProjectDependency) getDependencies().project(Collections.singletonMap("path", projectPath));
+        projectDependency.because(moduleName);
+        if (capability != null) {
+            projectDependency.capabilities(c -> c.requireCapabilities(capability));
+        }
+        return projectDependency;
+    }
+
+    /**
+     * The group of another project. It is taken from settings if it is known there. Otherwise, the project is
+     * assumed to have the same group as this project. The other project itself is not accessed.
+     */
+    private String projectGroup(String projectPath) {
+        String group = ProjectNamesIndex.get(getProject()).group(projectPath);
+        return group == null ? getProject().getGroup().toString() : group;
     }
 
     private Provider<Dependency> createWithGuessing(String moduleName, SourceSet sourceSetWithModuleInfo) {
         return getProviders().provider(() -> {
-            Map<String, String> allProjectNamesAndGroups = getProject().getRootProject().getSubprojects().stream().collect(
-                    Collectors.toMap(Project::getName, p -> (String) p.getGroup(), (a, b) -> a));
+            ProjectNamesIndex projectNames = ProjectNamesIndex.get(getProject());
 
             ModuleInfo moduleInfo = getModuleInfoCache().get().get(sourceSetWithModuleInfo, getProviders());
             String ownModuleNamesPrefix = moduleInfo.moduleNamePrefix(getProject().getName(), sourceSetWithModuleInfo.getName(), getModuleNameCheck().get());
@@ -251,22 +316,24 @@ public abstract class JavaModuleDependenciesExtension {
                     moduleName.startsWith(ownModuleNamesPrefix + ".") ? moduleName.substring(ownModuleNamesPrefix.length() + 1) :
                             ownModuleNamesPrefix.isEmpty() ? moduleName : null;
 
-            String parentPath = getProject().getParent() == null ? "" : getProject().getParent().getPath();
-            Optional<String> perfectMatch = allProjectNamesAndGroups.keySet().stream().filter(p -> p.replace("-", ".").equals(moduleNameSuffix)).findFirst();
-            Optional<String> existingProjectName = allProjectNamesAndGroups.keySet().stream().filter(p -> moduleNameSuffix != null && moduleNameSuffix.startsWith(p.replace("-", ".") + "."))
-                    .max(Comparator.comparingInt(String::length));
+            // derived from the path, accessing the parent project is not allowed with isolated projects
+            String ownPath = getProject().getPath();
+            String parentPath = ownPath.substring(0, Math.max(ownPath.lastIndexOf(':'), 0));
+            String perfectMatch = projectNames.perfectMatch(moduleNameSuffix);
+            String existingProjectName = projectNames.longestPrefixMatch(moduleNameSuffix);
 
-            if (perfectMatch.isPresent()) {
-                Dependency projectDependency = getDependencies().create(getProject().project(parentPath + ":" + perfectMatch.get()));
+            if (perfectMatch != null) {
+                Dependency projectDependency = getDependencies().project(Collections.singletonMap("path", parentPath + ":" + perfectMatch));
                 projectDependency.because(moduleName);
                 return projectDependency;
-            } else if (existingProjectName.isPresent()) {
+            } else if (existingProjectName != null) {
                 // no exact match -> add capability to point at Module in other source set
-                String projectName = existingProjectName.get();
-                ProjectDependency projectDependency = (ProjectDependency) getDependencies().create(getProject().project(parentPath + ":" + projectName));
+                String projectName = existingProjectName;
+                String projectPath = parentPath + ":" + projectName;
+                ProjectDependency projectDependency = (ProjectDependency) getDependencies().project(Collections.singletonMap("path", projectPath));
                 String capabilityName = projectName + moduleNameSuffix.substring(projectName.length()).replace(".", "-");
-                projectDependency.capabilities(c -> c.requireCapabilities(
-                        allProjectNamesAndGroups.get(projectName) + ":" + capabilityName));
+                String capabilityGroup = projectGroup(projectPath);
+                projectDependency.capabilities(c -> c.requireCapabilities(capabilityGroup + ":" + capabilityName));
                 projectDependency.because(moduleName);
                 return projectDependency;
             }
@@ -276,7 +343,8 @@ public abstract class JavaModuleDependenciesExtension {
     }
 
     private ModuleDependency createExternalDependency(String moduleName) {
-        Provider<String> coordinates = getModuleNameToGA().getting(moduleName).orElse(mapByPrefix(getProviders().provider(() -> moduleName)));
+        Provider<String> moduleNameProvider = getProviders().provider(() -> moduleName);
+        Provider<String> coordinates = mapping(moduleNameProvider).orElse(mapByPrefix(moduleNameProvider));
         if (coordinates.isPresent()) {
             Map<String, Object> component;
             String capability;
@@ -388,18 +456,8 @@ public abstract class JavaModuleDependenciesExtension {
      */
     public Provider<String> moduleName(Provider<String> ga) {
         return ga.map(groupArtifact -> {
-            Optional<String> found = getModuleNameToGA().get().entrySet().stream().filter(
-                    e -> e.getValue().equals(groupArtifact)).map(Map.Entry::getKey).findFirst();
-            if (found.isPresent()) {
-                return found.get();
-            } else {
-                String[] split = groupArtifact.split(":");
-                String group = split[0];
-                String artifact = split[1];
-                Optional<String> modulePrefix = getModuleNamePrefixToGroup().get().entrySet().stream().filter(
-                        e -> e.getValue().equals(group)).map(Map.Entry::getKey).findFirst();
-                return modulePrefix.map(s -> s + artifact).orElse(null);
-            }
+            String[] split = groupArtifact.split(":");
+            return moduleNameLookup.get().moduleName(split[0], split[1], moduleNamePrefixToGroupInverted.get());
         });
     }
 
@@ -460,7 +518,7 @@ public abstract class JavaModuleDependenciesExtension {
             Dependency platformDependency = getDependencies().platform(createDependency(platformProject));
             if (platformInJavaProject) {
                 if (platformProject.startsWith(":")) {
-                    String capability = ((ProjectDependency) platformDependency).getDependencyProject().getGroup() + platformProject + "-platform";
+                    String capability = projectGroup(platformProject) + platformProject + "-platform";
                     ((ProjectDependency) platformDependency).capabilities(c -> c.requireCapability(capability));
                 } else if (platformDependency instanceof ModuleDependency) {
                     String capability = platformProject + "-platform";
@@ -574,4 +632,14 @@ public abstract class JavaModuleDependenciesExtension {
 
     @Inject
     protected abstract SourceSetContainer getSourceSets();
+
+    private static final class ParsedModulesProperties {
+        private final String content;
+        private final Map<String, String> mappings;
+
+        private ParsedModulesProperties(String content, Map<String, String> mappings) {
+            this.content = content;
+            this.mappings = mappings;
+        }
+    }
 }
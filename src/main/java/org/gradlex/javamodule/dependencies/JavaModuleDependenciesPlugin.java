@@ -24,6 +24,7 @@ import org.gradle.api.Task;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.ConfigurationContainer;
 import org.gradle.api.artifacts.VersionCatalogsExtension;
+import org.gradle.api.attributes.Category;
 import org.gradle.api.initialization.Settings;
 import org.gradle.api.plugins.ExtensionAware;
 import org.gradle.api.plugins.ExtensionContainer;
@@ -37,17 +38,23 @@ import org.gradlex.javamodule.dependencies.dsl.GradleOnlyDirectives;
 import org.gradlex.javamodule.dependencies.initialization.JavaModuleDependenciesSettingsPlugin;
 import org.gradlex.javamodule.dependencies.internal.bridges.DependencyAnalysisBridge;
 import org.gradlex.javamodule.dependencies.internal.bridges.ExtraJavaModuleInfoBridge;
+import org.gradlex.javamodule.dependencies.internal.transforms.ModuleMetadataTransform;
 import org.gradlex.javamodule.dependencies.internal.dsl.AllDirectivesInternal;
 import org.gradlex.javamodule.dependencies.internal.dsl.GradleOnlyDirectivesInternal;
+import org.gradlex.javamodule.dependencies.internal.utils.ModuleGraph;
 import org.gradlex.javamodule.dependencies.internal.utils.ModuleInfo;
+import org.gradlex.javamodule.dependencies.internal.utils.SharedModuleGraph;
 import org.gradlex.javamodule.dependencies.tasks.BuildFileDependenciesGenerate;
 import org.gradlex.javamodule.dependencies.tasks.ModuleDependencyReport;
 import org.gradlex.javamodule.dependencies.tasks.ModuleDirectivesOrderingCheck;
 import org.gradlex.javamodule.dependencies.tasks.ModuleInfoGenerate;
 import org.gradlex.javamodule.dependencies.tasks.ModulePathAnalysis;
+import org.gradlex.javamodule.dependencies.tasks.ModulePathAnalysisAggregation;
 import org.gradlex.javamodule.dependencies.tasks.ModuleVersionRecommendation;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -68,6 +75,7 @@ import static org.gradlex.javamodule.dependencies.internal.utils.ModuleNamingUti
 public abstract class JavaModuleDependenciesPlugin implements Plugin<ExtensionAware> {
 
     private static final String EXTRA_JAVA_MODULE_INFO_PLUGIN_ID = "org.gradlex.extra-java-module-info";
+    private static final String MODULE_PATH_ANALYSIS_CATEGORY = "module-path-analysis";
 
     @Override
     public void apply(ExtensionAware projectOrSettings) {
@@ -89,9 +97,15 @@ public abstract class JavaModuleDependenciesPlugin implements Plugin<ExtensionAw
         setupExtraJavaModulePluginBridge(project, javaModuleDependencies);
 
         project.getPlugins().withType(JavaPlugin.class, javaPlugin -> setupForJavaProject(project, javaModuleDependencies));
+
+        if (project == project.getRootProject()) {
+            setupAggregatedReportTask(project);
+        }
     }
 
     private void setupForJavaProject(Project project, JavaModuleDependenciesExtension javaModuleDependencies) {
+        ModuleMetadataTransform.register(project);
+
         SourceSetContainer sourceSets = project.getExtensions().getByType(SourceSetContainer.class);
         sourceSets.all(sourceSet -> {
             process(REQUIRES, sourceSet.getImplementationConfigurationName(), sourceSet, project, javaModuleDependencies);
@@ -158,14 +172,35 @@ public abstract class JavaModuleDependenciesPlugin implements Plugin<ExtensionAw
 
     private void setupReportTasks(Project project, JavaModuleDependenciesExtension javaModuleDependencies) {
         SourceSetContainer sourceSets = project.getExtensions().getByType(SourceSetContainer.class);
-        project.getTasks().register("analyzeModulePath", ModulePathAnalysis.class, t -> {
+        TaskProvider<ModulePathAnalysis> analyzeModulePath = project.getTasks().register("analyzeModulePath", ModulePathAnalysis.class, t -> {
             t.setGroup(HELP_GROUP);
             t.setDescription("Check consistency of the Module Path");
 
             for (SourceSet sourceSet : sourceSets) {
-                t.getClasspathConfigurations().add(project.getConfigurations().getByName(sourceSet.getCompileClasspathConfigurationName()));
-                t.getClasspathConfigurations().add(project.getConfigurations().getByName(sourceSet.getRuntimeClasspathConfigurationName()));
+                for (String classpath : Arrays.asList(sourceSet.getCompileClasspathConfigurationName(), sourceSet.getRuntimeClasspathConfigurationName())) {
+                    Configuration conf = project.getConfigurations().getByName(classpath);
+                    t.getModulePath().from(project.provider(() -> ModuleMetadataTransform.moduleMetadata(conf).getArtifactFiles()));
+                    t.getModuleArtifacts().add(project.provider(() -> ModuleMetadataTransform.moduleMetadata(conf)));
+                }
             }
+            SourceSet main = sourceSets.getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+            t.getOwnModuleNamesPrefix().set(project.provider(() -> {
+                ModuleInfo moduleInfo = javaModuleDependencies.getModuleInfoCache().get().get(main, project.getProviders());
+                String prefix = moduleInfo == ModuleInfo.EMPTY ? "" : moduleInfo.moduleNamePrefix(project.getName(), main.getName(), false);
+                return prefix == null ? "" : prefix;
+            }));
+            t.getProjectPath().set(project.getPath());
+            t.getModuleNameToGA().set(javaModuleDependencies.projectModuleNameToGA());
+            t.getModuleNamePrefixToGroup().set(javaModuleDependencies.getModuleNamePrefixToGroup());
+            t.getReport().convention(project.getLayout().getBuildDirectory().file("reports/module-path-analysis/analysis.txt"));
+            t.getJsonReport().convention(project.getLayout().getBuildDirectory().file("reports/module-path-analysis/analysis.json"));
+        });
+        project.getConfigurations().create("modulePathAnalysisElements", c -> {
+            c.setCanBeResolved(false);
+            c.setCanBeConsumed(true);
+            c.setVisible(false);
+            c.getAttributes().attribute(Category.CATEGORY_ATTRIBUTE, project.getObjects().named(Category.class, MODULE_PATH_ANALYSIS_CATEGORY));
+            c.getOutgoing().artifact(analyzeModulePath.flatMap(ModulePathAnalysis::getJsonReport));
         });
         project.getTasks().register("recommendModuleVersions", ModuleVersionRecommendation.class, t -> {
             t.setGroup(HELP_GROUP);
@@ -176,6 +211,38 @@ public abstract class JavaModuleDependenciesPlugin implements Plugin<ExtensionAw
         });
     }
 
+    private void setupAggregatedReportTask(Project project) {
+        Configuration modulePathAnalysis = project.getConfigurations().create("modulePathAnalysis", c -> {
+            c.setCanBeResolved(true);
+            c.setCanBeConsumed(false);
+            c.setVisible(false);
+            c.getAttributes().attribute(Category.CATEGORY_ATTRIBUTE, project.getObjects().named(Category.class, MODULE_PATH_ANALYSIS_CATEGORY));
+        });
+        // If the Modules are registered in settings, all projects with Modules are analysed.
+        // Other projects can be added in the build: dependencies { modulePathAnalysis(project(":app")) }
+        ModuleGraph moduleGraph = SharedModuleGraph.get(project);
+        if (moduleGraph != null) {
+            for (String projectPath : moduleGraph.getProjectPaths()) {
+                if (!projectPath.equals(project.getPath())) {
+                    project.getDependencies().add(modulePathAnalysis.getName(), project.getDependencies().project(Collections.singletonMap("path", projectPath)));
+                }
+            }
+        }
+
+        project.getTasks().register("analyzeAllModulePaths", ModulePathAnalysisAggregation.class, t -> {
+            t.setGroup(HELP_GROUP);
+            t.setDescription("Check consistency of the Module Paths of all projects");
+
+            // lenient: a declared project may not provide an analysis, for example because it is not a Java project
+            t.getAnalysisReports().from(modulePathAnalysis.getIncoming().artifactView(v -> v.lenient(true)).getFiles());
+            if (project.getPlugins().hasPlugin(JavaPlugin.class)) {
+                t.getAnalysisReports().from(project.getTasks().named("analyzeModulePath", ModulePathAnalysis.class).flatMap(ModulePathAnalysis::getJsonReport));
+            }
+            t.getReport().convention(project.getLayout().getBuildDirectory().file("reports/module-path-analysis/aggregated.txt"));
+            t.getJsonReport().convention(project.getLayout().getBuildDirectory().file("reports/module-path-analysis/aggregated.json"));
+        });
+    }
+
     private void setupMigrationTasks(Project project, JavaModuleDependenciesExtension javaModuleDependencies) {
         SourceSetContainer sourceSets = project.getExtensions().getByType(SourceSetContainer.class);
         ConfigurationContainer configurations = project.getConfigurations();
@@ -190,7 +257,7 @@ public abstract class JavaModuleDependenciesPlugin implements Plugin<ExtensionAw
                 t.setGroup("java modules");
                 t.setDescription("Generate 'module-info.java' in '" + sourceSet.getName() + "' source set");
 
-                t.getModuleNameToGA().putAll(javaModuleDependencies.getModuleNameToGA());
+                t.getModuleNameToGA().putAll(javaModuleDependencies.projectModuleNameToGA());
 
                 t.getModuleName().convention(project.provider(() -> project.getGroup() + "." + sourceSetToModuleName(project.getName(), sourceSet.getName())));
 
@@ -266,6 +333,23 @@ public abstract class JavaModuleDependenciesPlugin implements Plugin<ExtensionAw
         if (javaModuleDependenciesExtension.getAnalyseOnly().get()) {
             return;
         }
+        ModuleGraph moduleGraph = javaModuleDependenciesExtension.getModuleGraph().getOrNull();
+        List<ModuleGraph.Requires> requires = moduleGraph == null ? null : moduleGraph.getRequires(sourceSet, moduleDirective);
+        if (requires != null) {
+            // dependencies precomputed in settings
+            for (ModuleGraph.Requires required : requires) {
+                if (JDKInfo.MODULES.contains(required.getModuleName())) {
+                    continue;
+                }
+                if (required.getProjectPath() != null) {
+                    configuration.getDependencies().add(javaModuleDependenciesExtension.createProjectDependency(
+                            required.getModuleName(), required.getProjectPath(), required.getCapability()));
+                } else {
+                    declareDependency(required.getModuleName(), project, sourceSet, configuration, javaModuleDependenciesExtension);
+                }
+            }
+            return;
+        }
         ModuleInfo moduleInfo = javaModuleDependenciesExtension.getModuleInfoCache().get().get(sourceSet, project.getProviders());
         for (String moduleName : moduleInfo.get(moduleDirective)) {
             declareDependency(moduleName,  project, sourceSet, configuration, javaModuleDependenciesExtension);
@@ -288,7 +372,7 @@ public abstract class JavaModuleDependenciesPlugin implements Plugin<ExtensionAw
             File sourceSetDir = sourceSet.getJava().getSrcDirs().iterator().next().getParentFile();
             File whiteboxModuleInfoFile = new File(sourceSetDir, "java9/module-info.java");
             if (whiteboxModuleInfoFile.exists()) {
-                moduleInfo = new ModuleInfo(project.getProviders().fileContents(project.getLayout().getProjectDirectory().file(whiteboxModuleInfoFile.getAbsolutePath())).getAsText().get());
+                moduleInfo = new ModuleInfo(project.getProviders().fileContents(project.getLayout().getProjectDirectory().file(whiteboxModuleInfoFile.getAbsolutePath())).getAsBytes().get());
             }
         }
         return moduleInfo.get(directive).stream()
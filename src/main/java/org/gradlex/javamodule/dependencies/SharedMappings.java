@@ -16,39 +16,33 @@
 
 package org.gradlex.javamodule.dependencies;
 
+import org.gradlex.javamodule.dependencies.internal.utils.CopyOnWriteMapping;
+import org.gradlex.javamodule.dependencies.internal.utils.ModuleMappingIndex;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
-import java.util.Properties;
 
 final public class SharedMappings {
-    public static Map<String, String> mappings = loadModuleNameToGAProperties();
+    /**
+     * The 'Module Name -> group:artifact' mappings shipped with the plugin. Lookups read the precompiled index
+     * directly. The entries are only copied if the map is modified.
+     */
+    public static Map<String, String> mappings = new CopyOnWriteMapping(loadModuleNameToGAProperties());
 
+    /**
+     * Loads the index compiled from 'unique_modules.properties' and 'modules.properties' when the plugin is built
+     * (see 'gradle/plugins'). Duplicated keys are already rejected at that point.
+     */
     static Map<String, String> loadModuleNameToGAProperties() {
-        Properties properties = new Properties() {
-            @Override
-            public synchronized Object put(Object key, Object value) {
-                if (get(key) != null) {
-                    throw new IllegalArgumentException(key + " already present.");
-                }
-                return super.put(key, value);
+        try (InputStream index = JavaModuleDependenciesExtension.class.getResourceAsStream("module_mappings.bin")) {
+            if (index == null) {
+                throw new IllegalStateException("module_mappings.bin not found");
             }
-        };
-        @SuppressWarnings({ "unchecked", "rawtypes" })
-        Map<String, String> propertiesAsMap = (Map) properties;
-
-        try (InputStream coordinatesFile = JavaModuleDependenciesExtension.class.getResourceAsStream("unique_modules.properties")) {
-            properties.load(coordinatesFile);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-
-        try (InputStream coordinatesFile = JavaModuleDependenciesExtension.class.getResourceAsStream("modules.properties")) {
-            properties.load(coordinatesFile);
+            return ModuleMappingIndex.load(index);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        return propertiesAsMap;
     }
 
     private SharedMappings() { }
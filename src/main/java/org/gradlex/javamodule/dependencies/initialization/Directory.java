@@ -41,6 +41,16 @@ public abstract class Directory {
      */
     public abstract ListProperty<String> getPlugins();
 
+    /**
+     * {@link Directory#include(String)}
+     */
+    public abstract ListProperty<String> getIncludes();
+
+    /**
+     * {@link Directory#exclude(String)}
+     */
+    public abstract ListProperty<String> getExcludes();
+
     @Inject
     protected abstract ObjectFactory getObjects();
 
@@ -56,6 +66,28 @@ public abstract class Directory {
         getPlugins().add(id);
     }
 
+    /**
+     * Search Modules recursively in all subfolders that match the given glob pattern (relative to this directory).
+     * For example, with 'include("**")' all subfolders are searched, no matter how deep they are nested. Only folders
+     * that contain a 'src' folder are considered. Hidden folders, 'build', 'node_modules' and 'src' folders are never
+     * searched. Symbolic links are only followed to folders outside this directory, each of them only once.
+     * A Module's project name is the name of its folder. If two Modules get the same name, configure a different
+     * {@link Module#getArtifact()} for one of them.
+     * Without include patterns, Modules are searched in the direct subfolders of this directory only.
+     */
+    public void include(String pattern) {
+        getIncludes().add(pattern);
+    }
+
+    /**
+     * Do not search Modules in subfolders that match the given glob pattern (relative to this directory) or
+     * in any folder below them. A pattern ending with '/**' also matches the folder itself: 'exclude("legacy/**")'
+     * skips 'legacy' and everything below it.
+     */
+    public void exclude(String pattern) {
+        getExcludes().add(pattern);
+    }
+
     /**
      * {@link Directory#module(String, Action)}
      */
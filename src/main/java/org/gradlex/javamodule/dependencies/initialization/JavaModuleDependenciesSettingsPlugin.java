@@ -21,6 +21,7 @@ import org.gradle.api.NonNullApi;
 import org.gradle.api.Plugin;
 import org.gradle.api.initialization.Settings;
 import org.gradle.util.GradleVersion;
+import org.gradlex.javamodule.dependencies.internal.utils.BeforeProjectActions;
 
 @NonNullApi
 public abstract class JavaModuleDependenciesSettingsPlugin implements Plugin<Settings> {
@@ -34,7 +35,8 @@ public abstract class JavaModuleDependenciesSettingsPlugin implements Plugin<Set
     }
 
     private void registerExtension(Settings settings) {
-        settings.getExtensions().create("rootPlugins", RootPluginsExtension.class, settings);
-        settings.getExtensions().create("javaModules", JavaModulesExtension.class, settings);
+        BeforeProjectActions beforeProjectActions = new BeforeProjectActions(settings);
+        settings.getExtensions().create("rootPlugins", RootPluginsExtension.class, beforeProjectActions);
+        settings.getExtensions().create("javaModules", JavaModulesExtension.class, settings, beforeProjectActions);
     }
 }
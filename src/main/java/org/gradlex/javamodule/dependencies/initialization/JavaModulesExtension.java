@@ -30,27 +30,56 @@ import org.gradle.api.plugins.JavaPlatformPlugin;
 import org.gradlex.javamodule.dependencies.JavaModuleDependenciesExtension;
 import org.gradlex.javamodule.dependencies.JavaModuleDependenciesPlugin;
 import org.gradlex.javamodule.dependencies.JavaModuleVersionsPlugin;
+import org.gradlex.javamodule.dependencies.internal.utils.BeforeProjectActions;
+import org.gradlex.javamodule.dependencies.internal.utils.ModuleDirectoryScanner;
 import org.gradlex.javamodule.dependencies.internal.utils.ModuleInfo;
 import org.gradlex.javamodule.dependencies.internal.utils.ModuleInfoCache;
+import org.gradlex.javamodule.dependencies.internal.utils.ProjectNamesIndex;
+import org.gradlex.javamodule.dependencies.internal.utils.SharedModuleGraph;
+import org.gradlex.javamodule.dependencies.internal.utils.ValueSourceModuleDirectories;
+import org.gradlex.javamodule.dependencies.internal.utils.ValueSourceProjectDirectories;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.File;
+import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public abstract class JavaModulesExtension {
 
     private final Settings settings;
+    private final BeforeProjectActions beforeProjectActions;
     private final ModuleInfoCache moduleInfoCache;
+    private final Map<String, String> projectGroups = new HashMap<>();
+    private final Set<String> platformProjects = new HashSet<>();
+    private final Map<String, File> moduleProjectDirs = new HashMap<>();
 
     @Inject
     public abstract ObjectFactory getObjects();
 
     @Inject
-    public JavaModulesExtension(Settings settings) {
+    public JavaModulesExtension(Settings settings, BeforeProjectActions beforeProjectActions) {
         this.settings = settings;
+        this.beforeProjectActions = beforeProjectActions;
         this.moduleInfoCache = getObjects().newInstance(ModuleInfoCache.class, true);
+        // once all Modules are known, compute the graph that is handed to all of them
+        beforeProjectActions.beforeDispatch(() -> {
+            SharedModuleGraph.register(settings, moduleInfoCache.toModuleGraph());
+            moduleInfoCache.makeReadOnly();
+            // the root project name is final now
+            platformProjects.forEach(path -> projectGroups.putIfAbsent(path, settings.getRootProject().getName()));
+            ProjectNamesIndex.register(settings, projectGroups);
+        });
     }
 
     /**
@@ -78,45 +107,96 @@ public abstract class JavaModulesExtension {
     }
 
     /**
-     * Register and configure ALL Modules located in direct subfolders of the given folder.
+     * Register and configure ALL Modules located in direct subfolders of the given folder
+     * (or in all subfolders matching the patterns configured via {@link Directory#include(String)}).
      */
     public void directory(String directory, Action<Directory> action) {
         File modulesDirectory = new File(settings.getRootDir(), directory);
         Directory moduleDirectory = getObjects().newInstance(Directory.class, modulesDirectory);
         action.execute(moduleDirectory);
 
-        File[] projectDirs = modulesDirectory.listFiles();
-        if (projectDirs == null) {
-            throw new RuntimeException("Failed to inspect: " + modulesDirectory);
-        }
-
+        Map<Module, File> candidates = new LinkedHashMap<>();
         for (Module module : moduleDirectory.customizedModules.values()) {
-            includeModule(module, new File(modulesDirectory, module.getDirectory().get()));
+            candidates.put(module, new File(modulesDirectory, module.getDirectory().get()));
         }
+        for (String subDirectory : findProjectDirs(modulesDirectory, moduleDirectory)) {
+            if (!moduleDirectory.customizedModules.containsKey(subDirectory)) {
+                candidates.put(moduleDirectory.addModule(subDirectory), new File(modulesDirectory, subDirectory));
+            }
+        }
+
+        // find the module-info.java files of all project folders at once
+        Map<String, List<String>> moduleInfoPaths = discoverModuleInfoPaths(directory, candidates.values());
+
+        Map<Module, File> modules = new LinkedHashMap<>();
+        candidates.forEach((module, projectDir) -> {
+            module.getModuleInfoPaths().convention(moduleInfoPaths.get(projectDir.getPath()));
+            if (moduleDirectory.customizedModules.containsValue(module) || !module.getModuleInfoPaths().get().isEmpty()) {
+                // only auto-include if there is at least one module-info.java
+                modules.put(module, projectDir);
+            }
+        });
+
+        // read all module-info.java files of the directory at once
+        List<File> moduleInfoFolders = new ArrayList<>();
+        modules.forEach((module, projectDir) -> module.getModuleInfoPaths().get().forEach(path -> moduleInfoFolders.add(new File(projectDir, path))));
+        moduleInfoCache.putAll(moduleInfoFolders, settings.getProviders());
+
+        modules.forEach(this::includeModule);
+    }
 
-        for (File projectDir : projectDirs) {
-            if (!moduleDirectory.customizedModules.containsKey(projectDir.getName())) {
-                Module module = moduleDirectory.addModule(projectDir.getName());
-                if (!module.getModuleInfoPaths().get().isEmpty()) {
-                    // only auto-include if there is at least one module-info.java
-                    includeModule(module, projectDir);
-                }
+    private List<String> findProjectDirs(File modulesDirectory, Directory moduleDirectory) {
+        List<String> includes = moduleDirectory.getIncludes().get();
+        List<String> excludes = moduleDirectory.getExcludes().get();
+        if (includes.isEmpty()) {
+            File[] projectDirs = modulesDirectory.listFiles();
+            if (projectDirs == null) {
+                throw new RuntimeException("Failed to inspect: " + modulesDirectory);
             }
+            List<PathMatcher> excludeMatchers = ModuleDirectoryScanner.excludeMatchers(excludes);
+            return Arrays.stream(projectDirs).map(File::getName)
+                    .filter(name -> excludeMatchers.stream().noneMatch(m -> m.matches(Paths.get(name))))
+                    .collect(Collectors.toList());
         }
+        return settings.getProviders().of(ValueSourceProjectDirectories.class, spec -> spec.parameters(param -> {
+            param.getRoot().set(modulesDirectory);
+            param.getIncludes().set(includes);
+            param.getExcludes().set(excludes);
+        })).get();
+    }
+
+    private Map<String, List<String>> discoverModuleInfoPaths(String directory, Collection<File> projectDirs) {
+        File projectCacheDir = settings.getStartParameter().getProjectCacheDir();
+        // one file per 'directory(...)', as each file only keeps the results of the folders it was last used for
+        String cacheFileName = "module-directories-" + Integer.toHexString(directory.hashCode()) + ".bin";
+        File cacheFile = new File(projectCacheDir == null ? new File(settings.getRootDir(), ".gradle") : projectCacheDir,
+                "java-module-dependencies/" + cacheFileName);
+        List<String> dirs = projectDirs.stream().map(File::getPath).collect(Collectors.toList());
+        return settings.getProviders().of(ValueSourceModuleDirectories.class, spec -> spec.parameters(param -> {
+            param.getDirs().set(dirs);
+            param.getCacheFile().set(cacheFile);
+        })).get();
     }
 
     /**
      * Configure a subproject as Platform for defining Module versions.
+     * Other projects refer to it with Gradle's default group, which is the name of the root project.
      */
     public void versions(String directory) {
         String projectName = Paths.get(directory).getFileName().toString();
         settings.include(projectName);
         settings.project(":" + projectName).setProjectDir(new File(settings.getRootDir(), directory));
-        settings.getGradle().getLifecycle().beforeProject(new ApplyJavaModuleVersionsPluginAction(projectName));
+        platformProjects.add(":" + projectName);
+        beforeProjectActions.add(":" + projectName, new ApplyJavaModuleVersionsPluginAction());
     }
 
     private void includeModule(Module module, File projectDir) {
         String artifact = module.getArtifact().get();
+        File otherProjectDir = moduleProjectDirs.putIfAbsent(artifact, projectDir);
+        if (otherProjectDir != null && !otherProjectDir.equals(projectDir)) {
+            throw new RuntimeException("The Modules in '" + otherProjectDir + "' and '" + projectDir + "' have the same artifact name '"
+                    + artifact + "'. Configure a different 'artifact' for one of them: module(\"...\") { artifact = \"...\" }");
+        }
         settings.include(artifact);
         ProjectDescriptor project = settings.project(":" + artifact);
         project.setProjectDir(projectDir);
@@ -131,21 +211,22 @@ public abstract class JavaModulesExtension {
         }
 
         String group = module.getGroup().getOrNull();
+        if (group != null) {
+            projectGroups.put(":" + artifact, group);
+        }
         List<String> plugins = module.getPlugins().get();
-        settings.getGradle().getLifecycle().beforeProject(new ApplyPluginsAction(artifact, group, plugins, mainModuleName, moduleInfoCache));
+        beforeProjectActions.add(":" + artifact, new ApplyPluginsAction(group, plugins, mainModuleName, moduleInfoCache));
     }
 
     @NonNullApi
     private static class ApplyPluginsAction implements IsolatedAction<Project>, Action<Project> {
 
-        private final String artifact;
         private final String group;
         private final List<String> plugins;
         private final String mainModuleName;
         private final ModuleInfoCache moduleInfoCache;
 
-        public ApplyPluginsAction(String artifact, @Nullable String group, List<String> plugins, @Nullable String mainModuleName, ModuleInfoCache moduleInfoCache) {
-            this.artifact = artifact;
+        public ApplyPluginsAction(@Nullable String group, List<String> plugins, @Nullable String mainModuleName, ModuleInfoCache moduleInfoCache) {
             this.group = group;
             this.plugins = plugins;
             this.mainModuleName = mainModuleName;
@@ -154,15 +235,15 @@ public abstract class JavaModulesExtension {
 
         @Override
         public void execute(Project project) {
-            if (project.getName().equals(artifact)) {
-                if (group != null) project.setGroup(group);
-                project.getPlugins().apply(JavaModuleDependenciesPlugin.class);
-                project.getExtensions().getByType(JavaModuleDependenciesExtension.class).getModuleInfoCache().set(moduleInfoCache);
-                plugins.forEach(id -> project.getPlugins().apply(id));
-                if (mainModuleName != null) {
-                    project.getPlugins().withType(ApplicationPlugin.class, p ->
-                            project.getExtensions().getByType(JavaApplication.class).getMainModule().set(mainModuleName));
-                }
+            if (group != null) project.setGroup(group);
+            project.getPlugins().apply(JavaModuleDependenciesPlugin.class);
+            JavaModuleDependenciesExtension javaModuleDependencies = project.getExtensions().getByType(JavaModuleDependenciesExtension.class);
+            javaModuleDependencies.getModuleInfoCache().set(moduleInfoCache);
+            javaModuleDependencies.getModuleGraph().set(SharedModuleGraph.get(project));
+            plugins.forEach(id -> project.getPlugins().apply(id));
+            if (mainModuleName != null) {
+                project.getPlugins().withType(ApplicationPlugin.class, p ->
+                        project.getExtensions().getByType(JavaApplication.class).getMainModule().set(mainModuleName));
             }
         }
     }
@@ -170,19 +251,11 @@ public abstract class JavaModulesExtension {
     @NonNullApi
     private static class ApplyJavaModuleVersionsPluginAction implements IsolatedAction<Project>, Action<Project> {
 
-        private final String projectName;
-
-        public ApplyJavaModuleVersionsPluginAction(String projectName) {
-            this.projectName = projectName;
-        }
-
         @Override
         public void execute(Project project) {
-            if (projectName.equals(project.getName())) {
-                project.getPlugins().apply(JavaPlatformPlugin.class);
-                project.getPlugins().apply(JavaModuleVersionsPlugin.class);
-                project.getExtensions().getByType(JavaPlatformExtension.class).allowDependencies();
-            }
+            project.getPlugins().apply(JavaPlatformPlugin.class);
+            project.getPlugins().apply(JavaModuleVersionsPlugin.class);
+            project.getExtensions().getByType(JavaPlatformExtension.class).allowDependencies();
         }
     }
 }
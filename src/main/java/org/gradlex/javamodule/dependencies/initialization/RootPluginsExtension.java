@@ -20,21 +20,21 @@ import org.gradle.api.Action;
 import org.gradle.api.IsolatedAction;
 import org.gradle.api.NonNullApi;
 import org.gradle.api.Project;
-import org.gradle.api.initialization.Settings;
+import org.gradlex.javamodule.dependencies.internal.utils.BeforeProjectActions;
 
 import javax.inject.Inject;
 
 public abstract class RootPluginsExtension {
 
-    private final Settings settings;
+    private final BeforeProjectActions beforeProjectActions;
 
     @Inject
-    public RootPluginsExtension(Settings settings) {
-        this.settings = settings;
+    public RootPluginsExtension(BeforeProjectActions beforeProjectActions) {
+        this.beforeProjectActions = beforeProjectActions;
     }
 
     public void id(String id) {
-        settings.getGradle().getLifecycle().beforeProject(new ApplyPluginAction(id));
+        beforeProjectActions.add(":", new ApplyPluginAction(id));
     }
 
     @NonNullApi
@@ -48,13 +48,7 @@ public abstract class RootPluginsExtension {
 
         @Override
         public void execute(Project project) {
-            if (isRoot(project)) {
-                project.getPlugins().apply(id);
-            }
-        }
-
-        private boolean isRoot(Project project) {
-            return project == project.getRootProject();
+            project.getPlugins().apply(id);
         }
     }
 }
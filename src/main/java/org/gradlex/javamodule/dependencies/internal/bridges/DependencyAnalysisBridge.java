@@ -23,6 +23,7 @@ import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.tasks.SourceSetContainer;
 import org.gradle.api.tasks.TaskContainer;
 import org.gradle.api.tasks.TaskProvider;
+import org.gradlex.javamodule.dependencies.internal.transforms.ModuleMetadataTransform;
 import org.gradlex.javamodule.dependencies.tasks.ModuleDirectivesOrderingCheck;
 import org.gradlex.javamodule.dependencies.tasks.ModuleDirectivesScopeCheck;
 
@@ -47,8 +48,10 @@ public class DependencyAnalysisBridge {
 
             Configuration cpClasspath = project.getConfigurations().getByName(sourceSet.getCompileClasspathConfigurationName());
             Configuration rtClasspath = project.getConfigurations().getByName(sourceSet.getRuntimeClasspathConfigurationName());
-            t.getModuleArtifacts().add(project.provider(() -> cpClasspath.getIncoming().getArtifacts()));
-            t.getModuleArtifacts().add(project.provider(() -> rtClasspath.getIncoming().getArtifacts()));
+            t.getModuleArtifacts().add(project.provider(() -> ModuleMetadataTransform.moduleMetadata(cpClasspath)));
+            t.getModuleArtifacts().add(project.provider(() -> ModuleMetadataTransform.moduleMetadata(rtClasspath)));
+            t.getModulePath().from(project.provider(() -> ModuleMetadataTransform.moduleMetadata(cpClasspath).getArtifactFiles()));
+            t.getModulePath().from(project.provider(() -> ModuleMetadataTransform.moduleMetadata(rtClasspath).getArtifactFiles()));
         }));
 
         project.getExtensions().getByType(AbstractExtension.class)
@@ -28,14 +28,13 @@ import org.gradle.api.artifacts.result.UnresolvedDependencyResult;
 import org.gradle.api.tasks.diagnostics.internal.graph.nodes.RenderableDependency;
 import org.gradle.api.tasks.diagnostics.internal.graph.nodes.RenderableDependencyResult;
 import org.gradle.api.tasks.diagnostics.internal.graph.nodes.RenderableUnresolvedDependencyResult;
+import org.gradlex.javamodule.dependencies.internal.transforms.ModuleMetadataTransform;
+import org.gradlex.javamodule.dependencies.internal.utils.ModuleJarDescriptor;
 
 import java.io.IOException;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
-import static org.gradlex.javamodule.dependencies.internal.utils.ModuleJar.isRealModule;
-import static org.gradlex.javamodule.dependencies.internal.utils.ModuleJar.readModuleNameFromJarFile;
-
 @NonNullApi
 public class RenderableModuleDependencyResult extends RenderableDependencyResult {
     private final ResolvedDependencyResult dependency;
@@ -76,13 +75,14 @@ public class RenderableModuleDependencyResult extends RenderableDependencyResult
             if (artifact == null) {
                 return "[BOM] " + selected.getDisplayName();
             } else {
-                String actualModuleName = readModuleNameFromJarFile(artifact.getFile());
+                ModuleJarDescriptor moduleJar = ModuleMetadataTransform.read(artifact.getFile());
+                String actualModuleName = moduleJar.getName();
                 if (actualModuleName == null) {
                     return "[CLASSPATH] " + selected.getDisplayName();
                 } else {
                     String version = "";
                     String coordinates =  selected.getDisplayName();
-                    String jarName = artifact.getFile().getName();
+                    String jarName = ModuleMetadataTransform.originalFileName(artifact.getFile());
                     if (selected instanceof ModuleComponentIdentifier) {
                         String selectedVersion = ((ModuleComponentIdentifier) selected).getVersion();
                         version = " (" + selectedVersion + ")";
@@ -94,7 +94,7 @@ public class RenderableModuleDependencyResult extends RenderableDependencyResult
                         }
                         coordinates = ((ModuleComponentIdentifier) selected).getModuleIdentifier().toString();
                     }
-                    String auto = isRealModule(artifact.getFile()) ? "" : "[AUTO] ";
+                    String auto = moduleJar.isExplicit() ? "" : "[AUTO] ";
                     return auto + actualModuleName + version + " | " + coordinates +
                             (isConstraint() ? "" : " | " + jarName);
                 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.transforms;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.ArtifactCollection;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.transform.CacheableTransform;
+import org.gradle.api.artifacts.transform.InputArtifact;
+import org.gradle.api.artifacts.transform.TransformAction;
+import org.gradle.api.artifacts.transform.TransformOutputs;
+import org.gradle.api.artifacts.transform.TransformParameters;
+import org.gradle.api.artifacts.type.ArtifactTypeDefinition;
+import org.gradle.api.file.FileSystemLocation;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradlex.javamodule.dependencies.internal.utils.ModuleJar;
+import org.gradlex.javamodule.dependencies.internal.utils.ModuleJarDescriptor;
+import org.gradlex.javamodule.dependencies.internal.utils.ModuleJarDescriptor.NameSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import static org.gradle.api.artifacts.type.ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE;
+
+/**
+ * Turns a Jar or class folder into a small properties file holding its {@link ModuleJarDescriptor}. The file is
+ * named like the Jar plus '.properties'. Through the transform cache, each Jar is only opened once per machine.
+ */
+@CacheableTransform
+public abstract class ModuleMetadataTransform implements TransformAction<TransformParameters.None> {
+
+    public static final String MODULE_METADATA_TYPE = "java-module-metadata";
+
+    private static final String SUFFIX = ".properties";
+    private static final String NAME = "name";
+    private static final String NAME_SOURCE = "nameSource";
+    private static final String EXPLICIT = "explicit";
+    private static final String MULTI_RELEASE_VERSION = "multiReleaseVersion";
+    private static final String REQUIRES = "requires";
+
+    public static void register(Project project) {
+        for (String artifactType : Arrays.asList(ArtifactTypeDefinition.JAR_TYPE, ArtifactTypeDefinition.JVM_CLASS_DIRECTORY)) {
+            project.getDependencies().registerTransform(ModuleMetadataTransform.class, t -> {
+                t.getFrom().attribute(ARTIFACT_TYPE_ATTRIBUTE, artifactType);
+                t.getTo().attribute(ARTIFACT_TYPE_ATTRIBUTE, MODULE_METADATA_TYPE);
+            });
+        }
+    }
+
+    /**
+     * @return the module metadata files of all Jars and class folders of the configuration
+     */
+    public static ArtifactCollection moduleMetadata(Configuration configuration) {
+        return configuration.getIncoming().artifactView(v ->
+                v.getAttributes().attribute(ARTIFACT_TYPE_ATTRIBUTE, MODULE_METADATA_TYPE)).getArtifacts();
+    }
+
+    public static ModuleJarDescriptor read(File moduleMetadata) throws IOException {
+        Properties p = new Properties();
+        try (Reader reader = Files.newBufferedReader(moduleMetadata.toPath(), StandardCharsets.UTF_8)) {
+            p.load(reader);
+        }
+        String requires = p.getProperty(REQUIRES, "");
+        return new ModuleJarDescriptor(
+                p.getProperty(NAME),
+                NameSource.valueOf(p.getProperty(NAME_SOURCE)),
+                Boolean.parseBoolean(p.getProperty(EXPLICIT)),
+                Integer.parseInt(p.getProperty(MULTI_RELEASE_VERSION)),
+                requires.isEmpty() ? Collections.emptyList() : Arrays.asList(requires.split(",")));
+    }
+
+    /**
+     * @return the name of the Jar or class folder the module metadata file was created from
+     */
+    public static String originalFileName(File moduleMetadata) {
+        String name = moduleMetadata.getName();
+        return name.substring(0, name.length() - SUFFIX.length());
+    }
+
+    @InputArtifact
+    @PathSensitive(PathSensitivity.NAME_ONLY)
+    public abstract Provider<FileSystemLocation> getInputArtifact();
+
+    @Override
+    public void transform(TransformOutputs outputs) {
+        File jarFileOrClassFolder = getInputArtifact().get().getAsFile();
+        File moduleMetadata = outputs.file(jarFileOrClassFolder.getName() + SUFFIX);
+        try {
+            ModuleJarDescriptor descriptor = ModuleJar.describe(jarFileOrClassFolder);
+            Properties p = new Properties();
+            if (descriptor.getName() != null) {
+                p.setProperty(NAME, descriptor.getName());
+            }
+            p.setProperty(NAME_SOURCE, descriptor.getNameSource().name());
+            p.setProperty(EXPLICIT, String.valueOf(descriptor.isExplicit()));
+            p.setProperty(MULTI_RELEASE_VERSION, String.valueOf(descriptor.getMultiReleaseVersion()));
+            p.setProperty(REQUIRES, String.join(",", descriptor.getRequires()));
+            StringWriter content = new StringWriter();
+            p.store(content, null);
+            // without the timestamp comment, so that the file only changes if the metadata changes
+            String lines = Arrays.stream(content.toString().split("\\R"))
+                    .filter(line -> !line.startsWith("#")).sorted().collect(Collectors.joining("\n", "", "\n"));
+            Files.write(moduleMetadata.toPath(), lines.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
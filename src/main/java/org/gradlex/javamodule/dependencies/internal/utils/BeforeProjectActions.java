@@ -0,0 +1,96 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import org.gradle.api.Action;
+import org.gradle.api.IsolatedAction;
+import org.gradle.api.NonNullApi;
+import org.gradle.api.Project;
+import org.gradle.api.initialization.Settings;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the actions that settings plugins register for individual projects in a table keyed by project path.
+ * One isolated 'beforeProject' action is registered for all of them when the plugin is applied. It looks up the
+ * actions of each project in the table, instead of every action being called for every project.
+ * <p>
+ * The table is completed when the settings are evaluated and is then kept in a build service. The dispatching
+ * action only knows the name of the service, so that the table is not copied into every project. As a consequence,
+ * all projects run the same action instances. The actions, and everything they hand to the projects, must not change
+ * once the settings are evaluated (e.g. {@link ModuleInfoCache#makeReadOnly()}).
+ */
+public class BeforeProjectActions {
+    private static final String SERVICE_NAME = "javaModuleDependenciesBeforeProjectActions";
+
+    private final Map<String, List<IsolatedAction<Project>>> actions = new LinkedHashMap<>();
+    private final List<Runnable> beforeDispatch = new ArrayList<>();
+
+    public BeforeProjectActions(Settings settings) {
+        settings.getGradle().getLifecycle().beforeProject(new DispatchAction());
+        settings.getGradle().settingsEvaluated(s -> {
+            beforeDispatch.forEach(Runnable::run);
+            Map<String, List<IsolatedAction<Project>>> table = new LinkedHashMap<>();
+            actions.forEach((path, projectActions) -> table.put(path, Collections.unmodifiableList(new ArrayList<>(projectActions))));
+            Table.get(s.getGradle()).actions = Collections.unmodifiableMap(table);
+        });
+    }
+
+    /**
+     * Run something when the settings are evaluated, before the table is handed to the projects. It may still add
+     * actions.
+     */
+    public void beforeDispatch(Runnable action) {
+        beforeDispatch.add(action);
+    }
+
+    /**
+     * Register an action for the project with the given path; actions of the same project run in registration order.
+     */
+    public void add(String projectPath, IsolatedAction<Project> action) {
+        actions.computeIfAbsent(projectPath, p -> new ArrayList<>()).add(action);
+    }
+
+    /**
+     * Holds the completed table for the duration of the build.
+     */
+    public abstract static class Table implements BuildService<BuildServiceParameters.None> {
+        private volatile Map<String, List<IsolatedAction<Project>>> actions = Collections.emptyMap();
+
+        private static Table get(Gradle gradle) {
+            return gradle.getSharedServices().registerIfAbsent(SERVICE_NAME, Table.class, spec -> { }).get();
+        }
+    }
+
+    @NonNullApi
+    private static class DispatchAction implements IsolatedAction<Project>, Action<Project> {
+
+        @Override
+        public void execute(Project project) {
+            for (IsolatedAction<Project> action : Table.get(project.getGradle()).actions.getOrDefault(project.getPath(), Collections.emptyList())) {
+                action.execute(project);
+            }
+        }
+    }
+}
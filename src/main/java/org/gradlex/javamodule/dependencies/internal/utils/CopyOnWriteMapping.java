@@ -0,0 +1,157 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import javax.annotation.Nullable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Modifiable 'key -> value' mapping that reads from a (read-only) source mapping until it is modified for the first
+ * time. Only then, the entries are copied into a map of its own.
+ */
+public class CopyOnWriteMapping extends AbstractMap<String, String> {
+
+    private Map<String, String> entries;
+    private boolean copied = false;
+    private int version = 0;
+
+    public CopyOnWriteMapping(Map<String, String> source) {
+        this.entries = source;
+    }
+
+    /**
+     * @return a number that changes whenever the mapping is modified
+     */
+    public synchronized int version() {
+        return version;
+    }
+
+    @Override
+    @Nullable
+    public synchronized String get(Object key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return entries.containsKey(key);
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    @Nullable
+    public synchronized String put(String key, String value) {
+        return modifiable().put(key, value);
+    }
+
+    @Override
+    @Nullable
+    public synchronized String remove(Object key) {
+        return modifiable().remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        modifiable().clear();
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                synchronized (CopyOnWriteMapping.this) {
+                    return new EntryIterator(entries);
+                }
+            }
+
+            @Override
+            public int size() {
+                return CopyOnWriteMapping.this.size();
+            }
+        };
+    }
+
+    private Map<String, String> modifiable() {
+        if (!copied) {
+            entries = new LinkedHashMap<>(entries);
+            copied = true;
+        }
+        version++;
+        return entries;
+    }
+
+    /**
+     * Iterates the entries that existed when iteration started. Modifications through the iterator or its entries
+     * go through the mapping, so that they trigger the copy.
+     */
+    private class EntryIterator implements Iterator<Entry<String, String>> {
+        private final Map<String, String> iterated;
+        private final Iterator<Entry<String, String>> delegate;
+        @Nullable
+        private String last;
+
+        EntryIterator(Map<String, String> iterated) {
+            this.iterated = iterated;
+            this.delegate = iterated.entrySet().iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            Entry<String, String> next = delegate.next();
+            last = next.getKey();
+            return new SimpleEntry<String, String>(next) {
+                @Override
+                public String setValue(String value) {
+                    super.setValue(value);
+                    return put(getKey(), value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            synchronized (CopyOnWriteMapping.this) {
+                if (iterated == entries) {
+                    // iterating the copy itself
+                    delegate.remove();
+                    version++;
+                } else {
+                    modifiable().remove(last);
+                }
+            }
+            last = null;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import org.gradlex.javamodule.dependencies.SharedMappings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverts a 'key -> value' mapping into 'value -> keys'. The keys of each value keep the iteration order of the
+ * original mapping. The inverted mapping is built once, when the instance is created.
+ */
+public class InvertedMapping {
+
+    private final Map<String, List<String>> inverted = new HashMap<>();
+
+    public InvertedMapping(Map<String, String> mapping) {
+        for (Map.Entry<String, String> entry : mapping.entrySet()) {
+            inverted.computeIfAbsent(entry.getValue(), v -> new ArrayList<>(1)).add(entry.getKey());
+        }
+    }
+
+    /**
+     * @return the inverted mappings of {@link SharedMappings}, built again only if the mappings were modified
+     */
+    public static InvertedMapping ofSharedMappings() {
+        return SharedMappingsSnapshot.get().inverted();
+    }
+
+    /**
+     * @return all keys that map to the given value (in iteration order of the mapping) or an empty list
+     */
+    public List<String> keys(String value) {
+        return inverted.getOrDefault(value, Collections.emptyList());
+    }
+}
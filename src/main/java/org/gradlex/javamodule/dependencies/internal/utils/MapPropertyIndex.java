@@ -0,0 +1,67 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import org.gradle.api.provider.MapProperty;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * An index (like an {@link InvertedMapping}) derived from the value of a MapProperty. The property may still change
+ * at any time. Its value is read on each call, but the index is only built again if the value changed.
+ */
+public class MapPropertyIndex<T> {
+
+    private final MapProperty<String, String> property;
+    private final Function<Map<String, String>, T> factory;
+    @Nullable
+    private volatile Snapshot<T> snapshot;
+
+    public MapPropertyIndex(MapProperty<String, String> property, Function<Map<String, String>, T> factory) {
+        this.property = property;
+        this.factory = factory;
+    }
+
+    public T get() {
+        return get(property.get());
+    }
+
+    /**
+     * @param value the current value of the property, if it was already read
+     */
+    public T get(Map<String, String> value) {
+        Snapshot<T> result = snapshot;
+        if (result == null || !result.value.equals(value)) {
+            // threads that get here at the same time build equal indexes from equal values
+            result = new Snapshot<>(value, factory.apply(value));
+            snapshot = result;
+        }
+        return result.index;
+    }
+
+    private static class Snapshot<T> {
+        private final Map<String, String> value;
+        private final T index;
+
+        private Snapshot(Map<String, String> value, T index) {
+            this.value = value;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import org.gradle.api.artifacts.ArtifactCollection;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ProjectComponentIdentifier;
+import org.gradle.api.artifacts.result.ResolvedArtifactResult;
+import org.gradle.api.capabilities.Capability;
+import org.gradlex.javamodule.dependencies.internal.transforms.ModuleMetadataTransform;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of module metadata artifacts by 'coordinates + capability name' (the coordinates of a project are its path).
+ * The Module Name of an artifact is only read when it is requested for the first time.
+ */
+public class ModuleArtifactsIndex {
+    private final Map<String, ResolvedArtifactResult> artifacts = new HashMap<>();
+    private final Map<File, String> moduleNames = new HashMap<>();
+
+    /**
+     * @param moduleArtifacts module metadata artifacts, in the order of lookup
+     */
+    public ModuleArtifactsIndex(List<ArtifactCollection> moduleArtifacts) {
+        for (ArtifactCollection collection : moduleArtifacts) {
+            for (ResolvedArtifactResult artifact : collection.getArtifacts()) {
+                String coordinates = coordinates(artifact.getId().getComponentIdentifier());
+                if (coordinates != null) {
+                    for (Capability capability : artifact.getVariant().getCapabilities()) {
+                        // the first artifact found wins
+                        artifacts.putIfAbsent(key(coordinates, capability.getName()), artifact);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param coordinates 'group:name' of a component or the path of a project
+     * @param capability 'group:name' or only 'name' of the capability
+     * @return the Module Name of the matching artifact, or the coordinates if there is none
+     */
+    public String moduleName(String coordinates, String capability) {
+        ResolvedArtifactResult moduleJar = artifacts.get(key(coordinates, capability.substring(capability.lastIndexOf(':') + 1)));
+        if (moduleJar == null) {
+            return coordinates;
+        }
+        return moduleNames.computeIfAbsent(moduleJar.getFile(), moduleMetadata -> {
+            try {
+                return ModuleMetadataTransform.read(moduleMetadata).getName();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Nullable
+    private static String coordinates(ComponentIdentifier id) {
+        if (id instanceof ModuleComponentIdentifier) {
+            return ((ModuleComponentIdentifier) id).getModuleIdentifier().toString();
+        }
+        if (id instanceof ProjectComponentIdentifier) {
+            return ((ProjectComponentIdentifier) id).getProjectPath();
+        }
+        return null;
+    }
+
+    private static String key(String coordinates, String capabilityName) {
+        return coordinates + " " + capabilityName;
+    }
+}
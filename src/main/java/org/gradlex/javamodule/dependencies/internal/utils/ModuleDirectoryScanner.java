@@ -0,0 +1,304 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Finds project folders below a folder (see {@link #projectDirs}) and the 'src/$sourceSetName/java' folders that
+ * contain a module-info.java in many project folders (see {@link #moduleInfoPaths}).
+ * <p>
+ * The project folders are inspected in parallel. The result for each project folder is persisted together with the
+ * modification times of all folders that were looked at ('src', 'src/$sourceSetName', 'src/$sourceSetName/java').
+ * As long as these do not change, a project folder is not listed again in the next build; only the modification
+ * times are checked. Results of folders that were modified within the last seconds, measured with the clock of the
+ * file system, are not persisted, because a further modification may not change the modification times.
+ */
+public final class ModuleDirectoryScanner {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final long RACY_MODIFICATION_WINDOW_MILLIS = 2000;
+    private static final Set<String> PRUNED_FOLDERS = new HashSet<>(Arrays.asList("build", "node_modules", "src"));
+
+    private ModuleDirectoryScanner() { }
+
+    /**
+     * @param projectDirs the project folders to inspect
+     * @param cacheFile the file in which the results are persisted between builds; it only keeps the results of the
+     *                  given project folders, results of other folders are removed from it
+     * @return project folder path -> paths of the folders containing a module-info.java, relative to the project folder
+     */
+    public static Map<String, List<String>> moduleInfoPaths(List<String> projectDirs, File cacheFile) {
+        Map<String, Entry> cached = load(cacheFile);
+        Set<String> scanned = ConcurrentHashMap.newKeySet();
+
+        Map<String, Entry> result = new ConcurrentHashMap<>();
+        projectDirs.parallelStream().distinct().forEach(dir -> {
+            Entry entry = cached.get(dir);
+            if (entry == null || !entry.isUpToDate(dir)) {
+                entry = scan(new File(dir));
+                scanned.add(dir);
+            }
+            result.put(dir, entry);
+        });
+
+        if (!scanned.isEmpty() || !result.keySet().containsAll(cached.keySet())) {
+            write(cacheFile, result, scanned);
+        }
+
+        Map<String, List<String>> moduleInfoPaths = new LinkedHashMap<>();
+        for (String dir : projectDirs) {
+            moduleInfoPaths.put(dir, result.get(dir).moduleInfoPaths);
+        }
+        return moduleInfoPaths;
+    }
+
+    /**
+     * Searches the folder tree below 'root' level by level; the folders of one level are listed in parallel.
+     * Hidden folders (like '.git'), 'build', 'node_modules' and 'src' folders are not searched. If no include
+     * pattern contains '**', folders deeper than the longest pattern are not searched either.
+     * <p>
+     * Symbolic links to folders are followed, unless they point into 'root' (where the folder is found anyway) or to
+     * a folder that contains 'root'. A folder outside 'root' is searched only through the first link pointing to it.
+     * This way, links can not make the search run in circles.
+     *
+     * @param includes glob patterns, relative to root, of the project folders to find
+     * @param excludes glob patterns, relative to root, of folders to skip (including everything below them)
+     * @return paths, relative to root, of all folders that match an include pattern and contain a 'src' folder
+     */
+    public static List<String> projectDirs(File root, List<String> includes, List<String> excludes) {
+        List<PathMatcher> includeMatchers = matchers(includes);
+        List<PathMatcher> excludeMatchers = excludeMatchers(excludes);
+        int maxDepth = includes.stream().anyMatch(pattern -> pattern.contains("**"))
+                ? Integer.MAX_VALUE
+                : includes.stream().mapToInt(pattern -> pattern.split("/").length).max().orElse(0);
+        Path canonicalRoot = canonical(root.toPath());
+        Set<Path> linkTargets = new HashSet<>();
+
+        List<String> result = new ArrayList<>();
+        List<String> level = Collections.singletonList("");
+        for (int depth = 1; depth <= maxDepth && !level.isEmpty(); depth++) {
+            level = level.parallelStream()
+                    .flatMap(parent -> childFolders(root, parent))
+                    .filter(folder -> !matches(excludeMatchers, folder))
+                    .sorted()
+                    .collect(Collectors.toList());
+            Set<String> skippedLinks = new HashSet<>();
+            for (String link : level.parallelStream().filter(folder -> Files.isSymbolicLink(new File(root, folder).toPath())).sorted().collect(Collectors.toList())) {
+                Path target = canonical(new File(root, link).toPath());
+                if (target == null || canonicalRoot == null || target.startsWith(canonicalRoot) || canonicalRoot.startsWith(target) || !linkTargets.add(target)) {
+                    skippedLinks.add(link);
+                }
+            }
+            level.removeAll(skippedLinks);
+            result.addAll(level.parallelStream()
+                    .filter(folder -> matches(includeMatchers, folder) && new File(root, folder + "/src").isDirectory())
+                    .collect(Collectors.toList()));
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * A pattern ending with '/**' also matches the folder itself: 'exclude("legacy/**")' excludes 'legacy' as well as
+     * everything below it.
+     *
+     * @return matchers for the given exclude patterns
+     */
+    public static List<PathMatcher> excludeMatchers(List<String> excludes) {
+        List<String> patterns = new ArrayList<>(excludes);
+        for (String pattern : excludes) {
+            if (pattern.endsWith("/**")) {
+                patterns.add(pattern.substring(0, pattern.length() - 3));
+            }
+        }
+        return matchers(patterns);
+    }
+
+    private static Stream<String> childFolders(File root, String parent) {
+        File[] children = new File(root, parent).listFiles(File::isDirectory);
+        if (children == null) {
+            return Stream.empty();
+        }
+        return Arrays.stream(children)
+                .map(File::getName)
+                .filter(name -> !name.startsWith(".") && !PRUNED_FOLDERS.contains(name))
+                .map(name -> parent.isEmpty() ? name : parent + "/" + name);
+    }
+
+    @Nullable
+    private static Path canonical(Path folder) {
+        try {
+            return folder.toRealPath();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static List<PathMatcher> matchers(List<String> patterns) {
+        return patterns.stream().map(pattern -> FileSystems.getDefault().getPathMatcher("glob:" + pattern)).collect(Collectors.toList());
+    }
+
+    private static boolean matches(List<PathMatcher> matchers, String folder) {
+        Path path = Paths.get(folder);
+        return matchers.stream().anyMatch(m -> m.matches(path));
+    }
+
+    private static Entry scan(File projectDir) {
+        Map<String, Long> timestamps = new LinkedHashMap<>();
+        List<String> moduleInfoPaths = new ArrayList<>();
+
+        File src = new File(projectDir, "src");
+        timestamps.put("src", src.lastModified());
+        File[] sourceSetDirs = src.listFiles();
+        if (sourceSetDirs != null) {
+            Arrays.sort(sourceSetDirs, Comparator.comparing(File::getName));
+            for (File sourceSetDir : sourceSetDirs) {
+                String javaDir = "src/" + sourceSetDir.getName() + "/java";
+                timestamps.put("src/" + sourceSetDir.getName(), sourceSetDir.lastModified());
+                timestamps.put(javaDir, new File(sourceSetDir, "java").lastModified());
+                if (new File(sourceSetDir, "java/module-info.java").exists()) {
+                    moduleInfoPaths.add(javaDir);
+                }
+            }
+        }
+        return new Entry(timestamps, moduleInfoPaths);
+    }
+
+    private static Map<String, Entry> load(File cacheFile) {
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        if (!cacheFile.exists()) {
+            return entries;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(cacheFile.toPath())))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return entries;
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                String dir = in.readUTF();
+                Map<String, Long> timestamps = new LinkedHashMap<>();
+                for (int j = in.readInt(); j > 0; j--) {
+                    timestamps.put(in.readUTF(), in.readLong());
+                }
+                List<String> moduleInfoPaths = new ArrayList<>();
+                for (int j = in.readInt(); j > 0; j--) {
+                    moduleInfoPaths.add(in.readUTF());
+                }
+                entries.put(dir, new Entry(timestamps, moduleInfoPaths));
+            }
+        } catch (IOException | RuntimeException e) {
+            // unreadable cache, all folders are inspected again
+            entries.clear();
+        }
+        return entries;
+    }
+
+    /**
+     * Writes the entries, except the ones of folders that were just scanned and modified too recently to be trusted.
+     */
+    private static void write(File cacheFile, Map<String, Entry> entries, Set<String> scanned) {
+        try {
+            //noinspection ResultOfMethodCallIgnored
+            cacheFile.getParentFile().mkdirs();
+            // other builds may read the file at the same time
+            File tmp = File.createTempFile(cacheFile.getName(), ".tmp", cacheFile.getParentFile());
+            try {
+                // the file system may use another clock than this machine (e.g. a network drive)
+                long fileSystemNow = tmp.lastModified();
+                long now = fileSystemNow == 0 ? System.currentTimeMillis() : Math.min(fileSystemNow, System.currentTimeMillis());
+
+                Map<String, Entry> persisted = new TreeMap<>(entries);
+                persisted.entrySet().removeIf(e -> scanned.contains(e.getKey()) && e.getValue().isRacy(now));
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(persisted.size());
+                for (Map.Entry<String, Entry> entry : persisted.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().timestamps.size());
+                    for (Map.Entry<String, Long> timestamp : entry.getValue().timestamps.entrySet()) {
+                        out.writeUTF(timestamp.getKey());
+                        out.writeLong(timestamp.getValue());
+                    }
+                    out.writeInt(entry.getValue().moduleInfoPaths.size());
+                    for (String path : entry.getValue().moduleInfoPaths) {
+                        out.writeUTF(path);
+                    }
+                }
+
+                Files.write(tmp.toPath(), bytes.toByteArray());
+                Files.move(tmp.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp.toPath());
+            }
+        } catch (IOException e) {
+            // not persisting the result only costs time in the next build
+        }
+    }
+
+    private static class Entry {
+        private final Map<String, Long> timestamps;
+        private final List<String> moduleInfoPaths;
+
+        private Entry(Map<String, Long> timestamps, List<String> moduleInfoPaths) {
+            this.timestamps = timestamps;
+            this.moduleInfoPaths = Collections.unmodifiableList(moduleInfoPaths);
+        }
+
+        private boolean isUpToDate(String projectDir) {
+            for (Map.Entry<String, Long> timestamp : timestamps.entrySet()) {
+                if (new File(projectDir, timestamp.getKey()).lastModified() != timestamp.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * A folder that was modified just now may be modified again without its modification time changing.
+         */
+        private boolean isRacy(long now) {
+            return timestamps.values().stream().anyMatch(t -> now - t < RACY_MODIFICATION_WINDOW_MILLIS);
+        }
+    }
+}
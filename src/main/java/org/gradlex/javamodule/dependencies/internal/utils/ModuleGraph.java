@@ -0,0 +1,129 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import org.gradle.api.tasks.SourceSet;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.gradlex.javamodule.dependencies.internal.utils.ModuleInfoCache.normalize;
+
+/**
+ * Immutable snapshot of all Modules registered in settings: which project (and capability) provides a Module and
+ * what each module-info.java requires. It is computed once, after the settings are evaluated, and handed to all
+ * projects. Projects read their dependencies from it instead of looking up each 'requires' individually.
+ */
+public final class ModuleGraph implements Serializable {
+
+    private final Map<String, String> moduleNameToProjectPath;
+    private final Map<String, String> moduleNameToCapability;
+    private final Map<File, Map<ModuleInfo.Directive, List<Requires>>> requires = new HashMap<>();
+
+    /**
+     * @param moduleInfos the module-info.java files, by (normalized) folder, of all Modules
+     */
+    ModuleGraph(Map<File, ModuleInfo> moduleInfos, Map<String, String> moduleNameToProjectPath, Map<String, String> moduleNameToCapability) {
+        this.moduleNameToProjectPath = new HashMap<>(moduleNameToProjectPath);
+        this.moduleNameToCapability = new HashMap<>(moduleNameToCapability);
+        moduleInfos.forEach((folder, moduleInfo) -> {
+            Map<ModuleInfo.Directive, List<Requires>> byDirective = new EnumMap<>(ModuleInfo.Directive.class);
+            for (ModuleInfo.Directive directive : ModuleInfo.Directive.values()) {
+                List<Requires> declarations = new ArrayList<>();
+                for (String moduleName : moduleInfo.get(directive)) {
+                    declarations.add(new Requires(moduleName,
+                            this.moduleNameToProjectPath.get(moduleName), this.moduleNameToCapability.get(moduleName)));
+                }
+                byDirective.put(directive, Collections.unmodifiableList(declarations));
+            }
+            requires.put(folder, byDirective);
+        });
+    }
+
+    @Nullable
+    public String getProjectPath(String moduleName) {
+        return moduleNameToProjectPath.get(moduleName);
+    }
+
+    @Nullable
+    public String getCapability(String moduleName) {
+        return moduleNameToCapability.get(moduleName);
+    }
+
+    /**
+     * @return the paths of all projects that contain a Module, sorted
+     */
+    public Set<String> getProjectPaths() {
+        return new TreeSet<>(moduleNameToProjectPath.values());
+    }
+
+    /**
+     * @return the Modules required through the given directive by the module-info.java of the SourceSet, or null if
+     * the SourceSet does not belong to a Module registered in settings
+     */
+    @Nullable
+    public List<Requires> getRequires(SourceSet sourceSet, ModuleInfo.Directive directive) {
+        for (File folder : sourceSet.getJava().getSrcDirs()) {
+            Map<ModuleInfo.Directive, List<Requires>> byDirective = requires.get(normalize(folder));
+            if (byDirective != null) {
+                return byDirective.get(directive);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A 'requires' of a module-info.java together with the project that provides the required Module, if any.
+     */
+    public static final class Requires implements Serializable {
+        private final String moduleName;
+        private final String projectPath;
+        private final String capability;
+
+        private Requires(String moduleName, @Nullable String projectPath, @Nullable String capability) {
+            this.moduleName = moduleName;
+            this.projectPath = projectPath;
+            this.capability = capability;
+        }
+
+        public String getModuleName() {
+            return moduleName;
+        }
+
+        /**
+         * @return path of the project providing the Module, or null if it is not a Module of this build
+         */
+        @Nullable
+        public String getProjectPath() {
+            return projectPath;
+        }
+
+        @Nullable
+        public String getCapability() {
+            return capability;
+        }
+    }
+}
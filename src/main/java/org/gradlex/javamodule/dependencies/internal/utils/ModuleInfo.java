@@ -18,8 +18,8 @@ package org.gradlex.javamodule.dependencies.internal.utils;
 
 import javax.annotation.Nullable;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -45,6 +45,10 @@ public class ModuleInfo implements Serializable {
 
     public static final ModuleInfo EMPTY = new ModuleInfo("");
 
+    private static final int EXPECT_ANY = 0;
+    private static final int EXPECT_MODULE_NAME = 1;
+    private static final int EXPECT_REQUIRES_NAME = 2;
+
     private String moduleName = "";
     private final List<String> requires = new ArrayList<>();
     private final List<String> requiresTransitive = new ArrayList<>();
@@ -54,31 +58,38 @@ public class ModuleInfo implements Serializable {
 
 
     public ModuleInfo(String moduleInfoFileContent) {
-        boolean insideComment = false;
-        for (String line : moduleInfoFileContent.split("\n")) {
-            insideComment = parse(line, insideComment);
-        }
+        this(moduleInfoFileContent.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param moduleInfoFileContent the UTF-8 encoded content of a module-info.java file
+     */
+    public ModuleInfo(byte[] moduleInfoFileContent) {
+        parse(moduleInfoFileContent);
     }
 
     public String getModuleName() {
         return moduleName;
     }
 
+    /**
+     * @return the Module Names listed with the given directive, as unmodifiable list
+     */
     public List<String> get(Directive directive) {
         if (directive == Directive.REQUIRES) {
-            return requires;
+            return Collections.unmodifiableList(requires);
         }
         if (directive == Directive.REQUIRES_TRANSITIVE) {
-            return requiresTransitive;
+            return Collections.unmodifiableList(requiresTransitive);
         }
         if (directive == Directive.REQUIRES_STATIC) {
-            return requiresStatic;
+            return Collections.unmodifiableList(requiresStatic);
         }
         if (directive == Directive.REQUIRES_STATIC_TRANSITIVE) {
-            return requiresStaticTransitive;
+            return Collections.unmodifiableList(requiresStaticTransitive);
         }
         if (directive == Directive.REQUIRES_RUNTIME) {
-            return requiresRuntime;
+            return Collections.unmodifiableList(requiresRuntime);
         }
         return Collections.emptyList();
     }
@@ -107,42 +118,143 @@ public class ModuleInfo implements Serializable {
     }
 
     /**
-     * @return true, if we are inside a multi-line comment after this line
+     * Single forward scan over the UTF-8 bytes of the file. All syntax relevant here is ASCII, and in UTF-8 no byte
+     * of a multi-byte sequence is in the ASCII range. Hence, the bytes can be scanned directly and only the
+     * identifiers that end up in the result are decoded into Strings.
      */
-    private boolean parse(String moduleLine, boolean insideComment) {
-        if (insideComment) {
-            return !moduleLine.contains("*/");
-        }
-
-        List<String> tokens = Arrays.asList(moduleLine
-                .replace(";", "")
-                .replace("{", "")
-                .replace("}", "")
-                .replace(RUNTIME_KEYWORD, "runtime")
-                .replaceAll("/\\*.*?\\*/", " ")
-                .trim().split("\\s+"));
-        int singleLineCommentStartIndex = tokens.indexOf("//");
-        if (singleLineCommentStartIndex >= 0) {
-            tokens = tokens.subList(0, singleLineCommentStartIndex);
-        }
-
-        if (tokens.contains("module")) {
-            moduleName = tokens.get(tokens.size() - 1);
-        }
-        if (tokens.size() > 1 && tokens.get(0).equals("requires")) {
-            if (tokens.size() > 3 && tokens.contains("static") && tokens.contains("transitive")) {
-                requiresStaticTransitive.add(tokens.get(3));
-            } else if (tokens.size() > 2 && tokens.contains("transitive")) {
-                requiresTransitive.add(tokens.get(2));
-            } else if (tokens.size() > 2 && tokens.contains("static")) {
-                requiresStatic.add(tokens.get(2));
-            } else if (tokens.size() > 2 && tokens.contains("runtime")) {
-                requiresRuntime.add(tokens.get(2));
+    private void parse(byte[] content) {
+        int length = content.length;
+        boolean insideModule = false;
+        boolean statementStart = true;
+        int state = EXPECT_ANY;
+
+        int pendingStart = -1;
+        int pendingEnd = -1;
+        boolean isStatic = false;
+        boolean isTransitive = false;
+        boolean isRuntime = false;
+
+        int i = 0;
+        while (i < length) {
+            byte c = content[i];
+            if (c == '/' && i + 1 < length && content[i + 1] == '/') {
+                i = indexOf(content, '\n', i + 2);
+                if (i < 0) {
+                    break;
+                }
+            } else if (c == '/' && i + 1 < length && content[i + 1] == '*') {
+                int commentEnd = indexOfCommentEnd(content, i + 2);
+                if (commentEnd < 0) {
+                    break;
+                }
+                if (state == EXPECT_REQUIRES_NAME && matches(content, i, commentEnd + 2, RUNTIME_KEYWORD)) {
+                    isRuntime = true;
+                }
+                i = commentEnd + 2;
+            } else if (c == '"') {
+                // string literal (e.g. in an annotation)
+                i++;
+                while (i < length && content[i] != '"') {
+                    i += content[i] == '\\' ? 2 : 1;
+                }
+                i++;
+            } else if (isIdentifierPart(c)) {
+                int start = i;
+                while (i < length && isIdentifierPart(content[i])) {
+                    i++;
+                }
+                if (state == EXPECT_MODULE_NAME) {
+                    moduleName = decode(content, start, i);
+                    state = EXPECT_ANY;
+                } else if (state == EXPECT_REQUIRES_NAME) {
+                    if (pendingStart >= 0) {
+                        isStatic |= matches(content, pendingStart, pendingEnd, "static");
+                        isTransitive |= matches(content, pendingStart, pendingEnd, "transitive");
+                    }
+                    pendingStart = start;
+                    pendingEnd = i;
+                } else if (!insideModule) {
+                    if (moduleName.isEmpty() && matches(content, start, i, "module")) {
+                        state = EXPECT_MODULE_NAME;
+                    }
+                } else if (statementStart) {
+                    if (matches(content, start, i, "requires")) {
+                        state = EXPECT_REQUIRES_NAME;
+                        pendingStart = -1;
+                        isStatic = false;
+                        isTransitive = false;
+                        isRuntime = false;
+                    }
+                    statementStart = false;
+                }
             } else {
-                requires.add(tokens.get(1));
+                if (c == ';') {
+                    if (state == EXPECT_REQUIRES_NAME && pendingStart >= 0) {
+                        addRequires(decode(content, pendingStart, pendingEnd), isStatic, isTransitive, isRuntime);
+                    }
+                    state = EXPECT_ANY;
+                    statementStart = true;
+                } else if (c == '{' || c == '}') {
+                    insideModule |= c == '{' && !moduleName.isEmpty();
+                    state = EXPECT_ANY;
+                    statementStart = true;
+                }
+                i++;
+            }
+        }
+    }
+
+    private void addRequires(String name, boolean isStatic, boolean isTransitive, boolean isRuntime) {
+        if (isStatic && isTransitive) {
+            requiresStaticTransitive.add(name);
+        } else if (isTransitive) {
+            requiresTransitive.add(name);
+        } else if (isStatic) {
+            requiresStatic.add(name);
+        } else if (isRuntime) {
+            requiresRuntime.add(name);
+        } else {
+            requires.add(name);
+        }
+    }
+
+    private static boolean isIdentifierPart(byte c) {
+        // negative: part of a multi-byte UTF-8 sequence, which can only be a (non-ASCII) identifier character here
+        return c < 0 || c == '.' || Character.isJavaIdentifierPart((char) c);
+    }
+
+    private static boolean matches(byte[] content, int start, int end, String keyword) {
+        if (end - start != keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            if (content[start + i] != keyword.charAt(i)) {
+                return false;
             }
         }
-        return moduleLine.lastIndexOf("/*") > moduleLine.lastIndexOf("*/");
+        return true;
+    }
+
+    private static int indexOf(byte[] content, char c, int from) {
+        for (int i = from; i < content.length; i++) {
+            if (content[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOfCommentEnd(byte[] content, int from) {
+        for (int i = from; i < content.length - 1; i++) {
+            if (content[i] == '*' && content[i + 1] == '/') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String decode(byte[] content, int start, int end) {
+        return new String(content, start, end - start, StandardCharsets.UTF_8);
     }
 
     @Override
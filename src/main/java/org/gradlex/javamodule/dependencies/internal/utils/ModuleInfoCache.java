@@ -23,12 +23,18 @@ import org.gradle.api.provider.ProviderFactory;
 import org.gradle.api.tasks.SourceSet;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import static org.gradlex.javamodule.dependencies.internal.utils.ModuleNamingUtil.sourceSetToCapabilitySuffix;
 
@@ -36,9 +42,14 @@ public abstract class ModuleInfoCache {
     private static final Logger LOGGER = (Logger) LoggerFactory.getLogger(ModuleInfoCache.class);
 
     private final boolean initializedInSettings;
-    private final Map<File, ModuleInfo> moduleInfo = new HashMap<>();
-    private final Map<String, String> moduleNameToProjectPath = new HashMap<>();
-    private final Map<String, String> moduleNameToCapability = new HashMap<>();
+    // The instance created in settings is shared by all projects, which may be configured in parallel.
+    // It is read-only once the settings are evaluated (see makeReadOnly()).
+    private volatile boolean readOnly = false;
+    private final Map<File, ModuleInfo> moduleInfo = new ConcurrentHashMap<>();
+    private final Set<File> foldersWithoutModuleInfo = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> moduleNameToProjectPath = new ConcurrentHashMap<>();
+    private final Map<String, String> moduleNameToCapability = new ConcurrentHashMap<>();
+    private final Set<File> moduleFolders = ConcurrentHashMap.newKeySet();
 
     @Inject
     public abstract ObjectFactory getObjects();
@@ -52,6 +63,15 @@ public abstract class ModuleInfoCache {
         return initializedInSettings;
     }
 
+    /**
+     * Called when the settings are evaluated. Entries found until then are configuration cache inputs of the settings.
+     * Later lookups of other folders are not added, so that each project that looks up a folder records the input
+     * itself and does not find an entry added by another project.
+     */
+    public void makeReadOnly() {
+        readOnly = true;
+    }
+
     /**
      * Returns the module-info.java for the given SourceSet. If the SourceSet has multiple source folders with multiple
      * module-info files (which is usually a broken setup) the first file found is returned.
@@ -61,8 +81,9 @@ public abstract class ModuleInfoCache {
      */
     public ModuleInfo get(SourceSet sourceSet, ProviderFactory providers) {
         for (File folder : sourceSet.getJava().getSrcDirs()) {
-            if (maybePutModuleInfo(folder, providers)) {
-                return moduleInfo.get(folder);
+            ModuleInfo found = lookup(folder, providers);
+            if (found != null) {
+                return found;
             }
         }
         return ModuleInfo.EMPTY;
@@ -70,21 +91,42 @@ public abstract class ModuleInfoCache {
 
     public File getFolder(SourceSet sourceSet, ProviderFactory providers) {
         for (File folder : sourceSet.getJava().getSrcDirs()) {
-            if (maybePutModuleInfo(folder, providers)) {
+            if (lookup(folder, providers) != null) {
                 return folder;
             }
         }
         return null;
     }
 
+    /**
+     * Reads the module-info.java files of all given folders through one ValueSource, in parallel. Later lookups of
+     * these folders through {@link #put} or {@link #get} do not access the file system again.
+     *
+     * @param folders the folders that contain module-info.java files
+     */
+    public void putAll(Collection<File> folders, ProviderFactory providers) {
+        List<String> dirs = folders.stream().map(folder -> normalize(folder).getPath()).collect(Collectors.toList());
+        Map<String, ModuleInfo> moduleInfos = providers.of(ValueSourceModuleInfos.class,
+                spec -> spec.parameters(param -> param.getDirs().set(dirs))).get();
+        for (String dir : dirs) {
+            ModuleInfo info = moduleInfos.get(dir);
+            if (info == null) {
+                foldersWithoutModuleInfo.add(new File(dir));
+            } else {
+                moduleInfo.putIfAbsent(new File(dir), info);
+            }
+        }
+    }
+
     /**
      * @param projectRoot the project that should hold a Java module
      * @return parsed module-info.java for the given project assuming a standard Java project layout
      */
     public ModuleInfo put(File projectRoot, String moduleInfoPath, String artifact, Provider<String> group, ProviderFactory providers) {
         File folder = new File(projectRoot, moduleInfoPath);
-        if (maybePutModuleInfo(folder, providers)) {
-            ModuleInfo thisModuleInfo = moduleInfo.get(folder);
+        ModuleInfo thisModuleInfo = lookup(folder, providers);
+        if (thisModuleInfo != null) {
+            moduleFolders.add(normalize(folder));
             moduleNameToProjectPath.put(thisModuleInfo.getModuleName(), ":" + artifact);
             Path parentDirectory = Paths.get(moduleInfoPath).getParent();
             String capabilitySuffix = parentDirectory == null ? null : sourceSetToCapabilitySuffix(parentDirectory.getFileName().toString());
@@ -109,15 +151,42 @@ public abstract class ModuleInfoCache {
         return moduleNameToCapability.get(moduleName);
     }
 
-    private boolean maybePutModuleInfo(File folder, ProviderFactory providers) {
-        Provider<ModuleInfo> moduleInfoProvider = provideModuleInfo(folder, providers);
-        if (moduleInfoProvider.isPresent()) {
-            if (!moduleInfo.containsKey(folder)) {
-                moduleInfo.put(folder, moduleInfoProvider.get() );
-            }
-            return true;
+    /**
+     * @return immutable snapshot of all Modules registered through {@link #put} so far
+     */
+    public ModuleGraph toModuleGraph() {
+        Map<File, ModuleInfo> moduleInfos = new HashMap<>();
+        for (File folder : moduleFolders) {
+            moduleInfos.put(folder, moduleInfo.get(folder));
+        }
+        return new ModuleGraph(moduleInfos, moduleNameToProjectPath, moduleNameToCapability);
+    }
+
+    @Nullable
+    private ModuleInfo lookup(File folder, ProviderFactory providers) {
+        File key = normalize(folder);
+        ModuleInfo known = moduleInfo.get(key);
+        if (known != null) {
+            return known;
         }
-        return false;
+        if (foldersWithoutModuleInfo.contains(key)) {
+            return null;
+        }
+        ModuleInfo found = provideModuleInfo(folder, providers).getOrNull();
+        if (readOnly) {
+            return found;
+        }
+        if (found == null) {
+            // remember the absence, the ValueSource is already a configuration cache input for it
+            foldersWithoutModuleInfo.add(key);
+            return null;
+        }
+        ModuleInfo previous = moduleInfo.putIfAbsent(key, found);
+        return previous == null ? found : previous;
+    }
+
+    static File normalize(File folder) {
+        return folder.toPath().toAbsolutePath().normalize().toFile();
     }
 
     private Provider<ModuleInfo> provideModuleInfo(File folder, ProviderFactory providers) {
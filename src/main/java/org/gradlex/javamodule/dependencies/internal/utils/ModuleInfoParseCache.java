@@ -0,0 +1,144 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps parsed module-info.java files for the lifetime of the Gradle daemon (the plugin's classloader is reused
+ * between builds as long as the build logic does not change). An entry is reused if size and modification time of
+ * the file did not change. If they did change, or the file was modified so recently that the modification time
+ * cannot be trusted, the content hash decides.
+ * <p>
+ * Entries of files that no longer exist are dropped when they are looked up. If the cache holds {@link #MAX_ENTRIES}
+ * entries, the least recently used one is dropped. The cached {@link ModuleInfo} instances are shared between builds;
+ * they can not be modified.
+ */
+public final class ModuleInfoParseCache {
+
+    private static final long RACY_MODIFICATION_WINDOW_MILLIS = 2000;
+    static final int MAX_ENTRIES = 20_000;
+
+    private static final Map<Path, Entry> ENTRIES = Collections.synchronizedMap(new LinkedHashMap<Path, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, ModuleInfoParseCache.Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    });
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    private ModuleInfoParseCache() { }
+
+    public static ModuleInfo parse(File moduleInfoFile) throws IOException {
+        Path path = moduleInfoFile.toPath().toAbsolutePath();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            ENTRIES.remove(path);
+            throw e;
+        }
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        Entry entry = ENTRIES.get(path);
+        if (entry != null && !entry.racy && entry.size == size && entry.lastModified == lastModified) {
+            HITS.incrementAndGet();
+            return entry.moduleInfo;
+        }
+
+        byte[] content = Files.readAllBytes(path);
+        byte[] hash = hash(content);
+        ModuleInfo moduleInfo;
+        if (entry != null && Arrays.equals(entry.hash, hash)) {
+            HITS.incrementAndGet();
+            moduleInfo = entry.moduleInfo;
+        } else {
+            MISSES.incrementAndGet();
+            moduleInfo = new ModuleInfo(content);
+        }
+        boolean racy = System.currentTimeMillis() - lastModified < RACY_MODIFICATION_WINDOW_MILLIS;
+        ENTRIES.put(path, new Entry(size, lastModified, racy, hash, moduleInfo));
+        return moduleInfo;
+    }
+
+    /**
+     * Forget all entries and reset the hit and miss counters.
+     */
+    public static void clear() {
+        ENTRIES.clear();
+        HITS.set(0);
+        MISSES.set(0);
+    }
+
+    /**
+     * @return number of entries currently held
+     */
+    public static int size() {
+        return ENTRIES.size();
+    }
+
+    /**
+     * @return number of lookups that did not require parsing since the daemon started (or the last {@link #clear()})
+     */
+    public static long getHits() {
+        return HITS.get();
+    }
+
+    /**
+     * @return number of lookups that required parsing since the daemon started (or the last {@link #clear()})
+     */
+    public static long getMisses() {
+        return MISSES.get();
+    }
+
+    private static byte[] hash(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static class Entry {
+        private final long size;
+        private final long lastModified;
+        private final boolean racy;
+        private final byte[] hash;
+        private final ModuleInfo moduleInfo;
+
+        private Entry(long size, long lastModified, boolean racy, byte[] hash, ModuleInfo moduleInfo) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.racy = racy;
+            this.hash = hash;
+            this.moduleInfo = moduleInfo;
+        }
+    }
+}
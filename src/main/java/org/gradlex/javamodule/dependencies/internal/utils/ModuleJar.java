@@ -16,74 +16,101 @@
 
 package org.gradlex.javamodule.dependencies.internal.utils;
 
+import org.gradlex.javamodule.dependencies.internal.utils.ModuleJarDescriptor.NameSource;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ModuleVisitor;
 import org.objectweb.asm.Opcodes;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
-import java.util.jar.JarInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarFile;
 import java.util.jar.Manifest;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 public class ModuleJar {
     private static final String AUTOMATIC_MODULE_NAME_ATTRIBUTE = "Automatic-Module-Name";
     private static final String MULTI_RELEASE_ATTRIBUTE = "Multi-Release";
     private static final String MODULE_INFO_CLASS_FILE = "module-info.class";
-    private static final Pattern MODULE_INFO_CLASS_MRJAR_PATH = Pattern.compile("META-INF/versions/\\d+/module-info.class");
+    private static final Pattern MODULE_INFO_CLASS_MRJAR_PATH = Pattern.compile("META-INF/versions/(\\d+)/module-info.class");
 
-    public static String readModuleNameFromJarFile(File jarFileOrClassFolder) throws IOException {
+    /**
+     * Reads everything there is to know about the Module Name of a Jar or class folder, opening it only once.
+     * A Module Name defined in the manifest takes precedence over the one in the module-info.class.
+     */
+    public static ModuleJarDescriptor describe(File jarFileOrClassFolder) throws IOException {
         if (jarFileOrClassFolder.isDirectory()) {
             // class folder
             File moduleInfo = new File(jarFileOrClassFolder, MODULE_INFO_CLASS_FILE);
             if (!moduleInfo.exists()) {
-                return null;
+                return new ModuleJarDescriptor(null, NameSource.NONE, false, 0, Collections.emptyList());
             }
-            return readNameFromModuleInfoClass(Files.newInputStream(moduleInfo.toPath()));
-        }
-        try (JarInputStream jarStream =  new JarInputStream(Files.newInputStream(jarFileOrClassFolder.toPath()))) {
-            String moduleName = getAutomaticModuleName(jarStream.getManifest());
-            if (moduleName != null) {
-                return moduleName;
+            try (InputStream input = Files.newInputStream(moduleInfo.toPath())) {
+                return readModuleInfoClass(input, null, 0);
             }
-            boolean isMultiReleaseJar = containsMultiReleaseJarEntry(jarStream);
-            ZipEntry next = jarStream.getNextEntry();
-            while (next != null) {
-                if (MODULE_INFO_CLASS_FILE.equals(next.getName())) {
-                    return readNameFromModuleInfoClass(jarStream);
-                }
-                if (isMultiReleaseJar && MODULE_INFO_CLASS_MRJAR_PATH.matcher(next.getName()).matches()) {
-                    return readNameFromModuleInfoClass(jarStream);
+        }
+        // ZipFile only reads the central directory and the entries we ask for
+        try (ZipFile jarFile = new ZipFile(jarFileOrClassFolder)) {
+            Manifest manifest = readManifest(jarFile);
+            String automaticModuleName = getAutomaticModuleName(manifest);
+            ZipEntry moduleInfo = findModuleInfoClass(jarFile, manifest);
+            if (moduleInfo != null) {
+                try (InputStream input = jarFile.getInputStream(moduleInfo)) {
+                    return readModuleInfoClass(input, automaticModuleName, multiReleaseVersion(moduleInfo));
                 }
-                next = jarStream.getNextEntry();
+            }
+            if (automaticModuleName != null) {
+                return new ModuleJarDescriptor(automaticModuleName, NameSource.MANIFEST, false, 0, Collections.emptyList());
             }
         }
-        return null;
+        return new ModuleJarDescriptor(null, NameSource.NONE, false, 0, Collections.emptyList());
     }
 
-    public static boolean isRealModule(File jarFileOrClassFolder) throws IOException {
-        if (jarFileOrClassFolder.isDirectory()) {
-            // class folder
-            return new File(jarFileOrClassFolder, MODULE_INFO_CLASS_FILE).exists();
+    private static Manifest readManifest(ZipFile jarFile) throws IOException {
+        ZipEntry entry = jarFile.getEntry(JarFile.MANIFEST_NAME);
+        if (entry == null) {
+            return null;
         }
-        try (JarInputStream jarStream =  new JarInputStream(Files.newInputStream(jarFileOrClassFolder.toPath()))) {
-            boolean isMultiReleaseJar = containsMultiReleaseJarEntry(jarStream);
-            ZipEntry next = jarStream.getNextEntry();
-            while (next != null) {
-                if (MODULE_INFO_CLASS_FILE.equals(next.getName())) {
-                    return true;
-                }
-                if (isMultiReleaseJar && MODULE_INFO_CLASS_MRJAR_PATH.matcher(next.getName()).matches()) {
-                    return true;
-                }
-                next = jarStream.getNextEntry();
+        try (InputStream input = jarFile.getInputStream(entry)) {
+            return new Manifest(input);
+        }
+    }
+
+    /**
+     * @return the 'module-info.class' in the root of the Jar or, in a Multi-Release Jar,
+     *         the one in 'META-INF/versions/N/' with the highest N
+     */
+    private static ZipEntry findModuleInfoClass(ZipFile jarFile, Manifest manifest) {
+        ZipEntry moduleInfo = jarFile.getEntry(MODULE_INFO_CLASS_FILE);
+        if (moduleInfo != null || !isMultiReleaseJar(manifest)) {
+            return moduleInfo;
+        }
+        int highestVersion = 0;
+        Enumeration<? extends ZipEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            int version = multiReleaseVersion(entry);
+            if (version > highestVersion) {
+                highestVersion = version;
+                moduleInfo = entry;
             }
         }
-        return false;
+        return moduleInfo;
+    }
+
+    private static int multiReleaseVersion(ZipEntry moduleInfo) {
+        Matcher matcher = MODULE_INFO_CLASS_MRJAR_PATH.matcher(moduleInfo.getName());
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : 0;
     }
 
     private static String getAutomaticModuleName(Manifest manifest) {
@@ -93,21 +120,29 @@ public class ModuleJar {
         return manifest.getMainAttributes().getValue(AUTOMATIC_MODULE_NAME_ATTRIBUTE);
     }
 
-    private static boolean containsMultiReleaseJarEntry(JarInputStream jarStream) {
-        Manifest manifest = jarStream.getManifest();
-        return manifest !=null && Boolean.parseBoolean(manifest.getMainAttributes().getValue(MULTI_RELEASE_ATTRIBUTE));
+    private static boolean isMultiReleaseJar(Manifest manifest) {
+        return manifest != null && Boolean.parseBoolean(manifest.getMainAttributes().getValue(MULTI_RELEASE_ATTRIBUTE));
     }
 
-    private static String readNameFromModuleInfoClass(InputStream input) throws IOException {
+    private static ModuleJarDescriptor readModuleInfoClass(InputStream input, @Nullable String automaticModuleName, int multiReleaseVersion) throws IOException {
         ClassReader classReader = new ClassReader(input);
         String[] moduleName = new String[1];
+        List<String> requires = new ArrayList<>();
         classReader.accept(new ClassVisitor(Opcodes.ASM8) {
             @Override
             public ModuleVisitor visitModule(String name, int access, String version) {
                 moduleName[0] = name;
-                return super.visitModule(name, access, version);
+                return new ModuleVisitor(Opcodes.ASM8) {
+                    @Override
+                    public void visitRequire(String module, int access, String version) {
+                        requires.add(module);
+                    }
+                };
             }
         }, 0);
-        return moduleName[0];
+        if (automaticModuleName != null) {
+            return new ModuleJarDescriptor(automaticModuleName, NameSource.MANIFEST, true, multiReleaseVersion, requires);
+        }
+        return new ModuleJarDescriptor(moduleName[0], NameSource.DESCRIPTOR, true, multiReleaseVersion, requires);
     }
 }
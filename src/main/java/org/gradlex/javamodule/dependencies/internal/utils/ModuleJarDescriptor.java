@@ -0,0 +1,106 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * What {@link ModuleJar#describe(java.io.File)} found out about a Jar or class folder.
+ */
+public final class ModuleJarDescriptor {
+
+    public enum NameSource {
+        /** 'Automatic-Module-Name' entry in the manifest */
+        MANIFEST,
+        /** module-info.class */
+        DESCRIPTOR,
+        /** not a Module */
+        NONE
+    }
+
+    private final String name;
+    private final NameSource nameSource;
+    private final boolean explicit;
+    private final int multiReleaseVersion;
+    private final List<String> requires;
+
+    public ModuleJarDescriptor(@Nullable String name, NameSource nameSource, boolean explicit, int multiReleaseVersion, List<String> requires) {
+        this.name = name;
+        this.nameSource = nameSource;
+        this.explicit = explicit;
+        this.multiReleaseVersion = multiReleaseVersion;
+        this.requires = Collections.unmodifiableList(new ArrayList<>(requires));
+    }
+
+    /**
+     * @return the Module Name or null if the Jar is not a Module
+     */
+    @Nullable
+    public String getName() {
+        return name;
+    }
+
+    public NameSource getNameSource() {
+        return nameSource;
+    }
+
+    /**
+     * @return true if the Jar contains a module-info.class
+     */
+    public boolean isExplicit() {
+        return explicit;
+    }
+
+    /**
+     * @return true if the Jar only defines a Module Name through its manifest
+     */
+    public boolean isAutomatic() {
+        return name != null && !explicit;
+    }
+
+    /**
+     * @return N if the module-info.class was found in 'META-INF/versions/N/', 0 otherwise
+     */
+    public int getMultiReleaseVersion() {
+        return multiReleaseVersion;
+    }
+
+    /**
+     * @return the Module Names of all 'requires' in the module-info.class (empty for Automatic Modules)
+     */
+    public List<String> getRequires() {
+        return requires;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ModuleJarDescriptor that = (ModuleJarDescriptor) o;
+        return explicit == that.explicit && multiReleaseVersion == that.multiReleaseVersion
+                && Objects.equals(name, that.name) && nameSource == that.nameSource && requires.equals(that.requires);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, nameSource, explicit, multiReleaseVersion, requires);
+    }
+}
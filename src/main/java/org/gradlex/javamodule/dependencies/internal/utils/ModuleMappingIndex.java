@@ -0,0 +1,240 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only 'Module Name -> group:artifact' map backed by the binary index that is generated from the
+ * '*modules.properties' files when the plugin is built. Lookups binary search the index directly.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * int      magic ('JMMI')
+ * int      number of entries
+ * int      block size
+ * int      length of the longest key
+ * int      number of groups, followed by one int offset per group into the group data
+ * int      length of group data, followed by the UTF-8 bytes of all groups (sorted, no separators)
+ * int      number of blocks, followed by one int offset per block into the entry data
+ * entries  sorted by the UTF-8 bytes of the key; per entry:
+ *          ubyte  length of prefix shared with the previous key (0 for the first entry of a block)
+ *          ushort length of the key suffix, followed by the suffix bytes
+ *          ushort group index (0xFFFF if the value has no group)
+ *          ushort length of the artifact (the value after 'group:'), followed by the artifact bytes
+ * </pre>
+ * The index is written by 'ModuleMappingsIndexGenerate' in 'gradle/plugins', which has to be changed together with
+ * this class. ModuleMappingIndexTest checks the index shipped with the plugin against the properties files.
+ */
+public class ModuleMappingIndex extends AbstractMap<String, String> {
+    private static final int MAGIC = 0x4A4D4D49; // 'JMMI', same value in ModuleMappingsIndexGenerate
+    private static final int NO_GROUP = 0xFFFF;
+
+    private final byte[] index;
+    private final int size;
+    private final int maxKeyLength;
+    private final int groupCount;
+    private final int groupOffsetsStart;
+    private final int groupDataStart;
+    private final int groupDataLength;
+    private final int blockCount;
+    private final int blockOffsetsStart;
+    private final int entryDataStart;
+
+    public static ModuleMappingIndex load(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new ModuleMappingIndex(out.toByteArray());
+    }
+
+    private ModuleMappingIndex(byte[] index) {
+        this.index = index;
+        if (getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a module mapping index");
+        }
+        this.size = getInt(4);
+        // getInt(8) is the block size, which is implied by the block offsets
+        this.maxKeyLength = getInt(12);
+        this.groupCount = getInt(16);
+        this.groupOffsetsStart = 20;
+        this.groupDataLength = getInt(groupOffsetsStart + groupCount * 4);
+        this.groupDataStart = groupOffsetsStart + groupCount * 4 + 4;
+        this.blockCount = getInt(groupDataStart + groupDataLength);
+        this.blockOffsetsStart = groupDataStart + groupDataLength + 4;
+        this.entryDataStart = blockOffsetsStart + blockCount * 4;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    @Nullable
+    public String get(Object key) {
+        if (!(key instanceof String) || blockCount == 0) {
+            return null;
+        }
+        byte[] searched = ((String) key).getBytes(StandardCharsets.UTF_8);
+
+        // find the last block whose first key is <= the searched key
+        int low = 0;
+        int high = blockCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            int position = blockStart(mid);
+            int keyLength = getUnsignedShort(position + 1);
+            if (compare(position + 3, keyLength, searched) <= 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        // scan the block, decoding front-coded keys
+        byte[] current = new byte[maxKeyLength];
+        int position = blockStart(low);
+        int end = low + 1 < blockCount ? blockStart(low + 1) : index.length;
+        while (position < end) {
+            int shared = index[position] & 0xFF;
+            int suffixLength = getUnsignedShort(position + 1);
+            copy(position + 3, current, shared, suffixLength);
+            int keyLength = shared + suffixLength;
+            position += 3 + suffixLength;
+
+            int c = compare(current, keyLength, searched);
+            if (c == 0) {
+                return value(position);
+            }
+            if (c > 0) {
+                return null;
+            }
+            position += 4 + (getUnsignedShort(position + 2));
+        }
+        return null;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int blockStart(int block) {
+        return entryDataStart + getInt(blockOffsetsStart + block * 4);
+    }
+
+    private String value(int position) {
+        int group = getUnsignedShort(position);
+        int artifactLength = getUnsignedShort(position + 2);
+        String artifact = new String(index, position + 4, artifactLength, StandardCharsets.UTF_8);
+        if (group == NO_GROUP) {
+            return artifact;
+        }
+        int groupStart = getInt(groupOffsetsStart + group * 4);
+        int groupEnd = group + 1 < groupCount ? getInt(groupOffsetsStart + (group + 1) * 4) : groupDataLength;
+        return new String(index, groupDataStart + groupStart, groupEnd - groupStart, StandardCharsets.UTF_8) + ":" + artifact;
+    }
+
+    private void copy(int position, byte[] target, int offset, int length) {
+        System.arraycopy(index, position, target, offset, length);
+    }
+
+    private int getInt(int position) {
+        return (index[position] & 0xFF) << 24 | (index[position + 1] & 0xFF) << 16
+                | (index[position + 2] & 0xFF) << 8 | index[position + 3] & 0xFF;
+    }
+
+    private int getUnsignedShort(int position) {
+        return (index[position] & 0xFF) << 8 | index[position + 1] & 0xFF;
+    }
+
+    private int compare(int position, int length, byte[] searched) {
+        for (int i = 0; i < length && i < searched.length; i++) {
+            int c = (index[position + i] & 0xFF) - (searched[i] & 0xFF);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return length - searched.length;
+    }
+
+    private static int compare(byte[] key, int length, byte[] searched) {
+        for (int i = 0; i < length && i < searched.length; i++) {
+            int c = (key[i] & 0xFF) - (searched[i] & 0xFF);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return length - searched.length;
+    }
+
+    private class EntryIterator implements Iterator<Entry<String, String>> {
+        private final byte[] current = new byte[maxKeyLength];
+        private int position = entryDataStart;
+        private int remaining = size;
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            int shared = index[position] & 0xFF;
+            int suffixLength = getUnsignedShort(position + 1);
+            copy(position + 3, current, shared, suffixLength);
+            String key = new String(current, 0, shared + suffixLength, StandardCharsets.UTF_8);
+            position += 3 + suffixLength;
+            String value = value(position);
+            position += 4 + (getUnsignedShort(position + 2));
+            remaining--;
+            return new SimpleImmutableEntry<>(key, value);
+        }
+    }
+}
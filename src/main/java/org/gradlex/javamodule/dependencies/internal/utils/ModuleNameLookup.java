@@ -0,0 +1,61 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the Module Name for 'group:artifact' coordinates. Used by JavaModuleDependenciesExtension.moduleName() and
+ * by the ModulePathAnalysis task, so that both find the same names.
+ */
+public class ModuleNameLookup {
+
+    private final Map<String, String> projectMappings;
+    private final InvertedMapping projectMappingsInverted;
+
+    /**
+     * @param projectMappings the 'Module Name -> GA' mappings of a project without the ones shipped with the plugin
+     */
+    public ModuleNameLookup(Map<String, String> projectMappings) {
+        this.projectMappings = projectMappings;
+        this.projectMappingsInverted = new InvertedMapping(projectMappings);
+    }
+
+    /**
+     * Looks in the mappings shipped with the plugin first, unless the project maps a name to something else. Then,
+     * in the mappings of the project and last in the 'Module Name Prefix -> group' mappings.
+     *
+     * @return the first name found or null
+     */
+    @Nullable
+    public String moduleName(String group, String artifact, InvertedMapping groupToModuleNamePrefixes) {
+        String ga = group + ":" + artifact;
+        for (String name : InvertedMapping.ofSharedMappings().keys(ga)) {
+            if (!projectMappings.containsKey(name)) {
+                return name;
+            }
+        }
+        List<String> found = projectMappingsInverted.keys(ga);
+        if (!found.isEmpty()) {
+            return found.get(0);
+        }
+        List<String> modulePrefixes = groupToModuleNamePrefixes.keys(group);
+        return modulePrefixes.isEmpty() ? null : modulePrefixes.get(0) + artifact;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import javax.annotation.Nullable;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Finds the longest prefix of a name in a 'prefix -> value' mapping. The prefixes are kept in a character trie,
+ * so that a lookup costs O(length of the name) independent of the number of prefixes. The trie is a snapshot of
+ * the mapping at construction time.
+ */
+public class PrefixMapping {
+
+    private final Node root = new Node();
+
+    public PrefixMapping(Map<String, String> mapping) {
+        for (Map.Entry<String, String> entry : mapping.entrySet()) {
+            Node node = root;
+            String prefix = entry.getKey();
+            for (int i = 0; i < prefix.length(); i++) {
+                if (node.children == null) {
+                    node.children = new HashMap<>();
+                }
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+            }
+            node.entry = new AbstractMap.SimpleImmutableEntry<>(prefix, entry.getValue());
+        }
+    }
+
+    /**
+     * @return the entry with the longest prefix of the name or null if no prefix matches
+     */
+    @Nullable
+    public Map.Entry<String, String> longestPrefix(String name) {
+        Node node = root;
+        Map.Entry<String, String> found = node.entry;
+        for (int i = 0; i < name.length() && node.children != null; i++) {
+            node = node.children.get(name.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.entry != null) {
+                found = node.entry;
+            }
+        }
+        return found;
+    }
+
+    private static class Node {
+        private Map<Character, Node> children;
+        private Map.Entry<String, String> entry;
+    }
+}
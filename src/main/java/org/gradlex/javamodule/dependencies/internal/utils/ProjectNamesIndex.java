@@ -0,0 +1,156 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import org.gradle.api.Project;
+import org.gradle.api.initialization.ProjectDescriptor;
+import org.gradle.api.initialization.Settings;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of all subprojects of a build by their name with '-' replaced by '.' (the form in which project names
+ * appear in Module Names). It is created once per build and shared by all projects that guess project
+ * dependencies from Module Names.
+ * <p>
+ * If the settings plugin is used, the index is created in settings from the project structure (see
+ * {@link #register}). Projects then do not need to access other projects, which is required for isolated projects.
+ * Otherwise, it is created from the names of the projects of the build when it is first used.
+ */
+public abstract class ProjectNamesIndex implements BuildService<ProjectNamesIndex.Parameters> {
+    private static final String SERVICE_NAME = "javaModuleDependenciesProjectNames";
+
+    public interface Parameters extends BuildServiceParameters {
+        Property<Boolean> getInitializedInSettings();
+
+        /**
+         * Dotted project name -> project name
+         */
+        MapProperty<String, String> getProjectNames();
+
+        /**
+         * Project path -> group, for the projects of which the group is known in settings
+         */
+        MapProperty<String, String> getGroups();
+    }
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Create the index from the projects included in settings. Call this after the settings are evaluated.
+     *
+     * @param groups project path -> group, for the projects of which the group is known
+     */
+    public static void register(Settings settings, Map<String, String> groups) {
+        List<ProjectDescriptor> projects = new ArrayList<>();
+        collectSubprojects(settings.getRootProject(), projects);
+        projects.sort(Comparator.comparing(ProjectDescriptor::getPath));
+
+        Map<String, String> projectNames = new HashMap<>();
+        for (ProjectDescriptor project : projects) {
+            projectNames.putIfAbsent(project.getName().replace("-", "."), project.getName());
+        }
+
+        settings.getGradle().getSharedServices().registerIfAbsent(SERVICE_NAME, ProjectNamesIndex.class, spec -> {
+            spec.getParameters().getInitializedInSettings().set(true);
+            spec.getParameters().getProjectNames().set(projectNames);
+            spec.getParameters().getGroups().set(groups);
+        });
+    }
+
+    private static void collectSubprojects(ProjectDescriptor project, List<ProjectDescriptor> result) {
+        for (ProjectDescriptor child : project.getChildren()) {
+            result.add(child);
+            collectSubprojects(child, result);
+        }
+    }
+
+    public static ProjectNamesIndex get(Project project) {
+        ProjectNamesIndex index = project.getGradle().getSharedServices().registerIfAbsent(
+                SERVICE_NAME, ProjectNamesIndex.class, spec -> { }).get();
+        if (index.snapshot == null) {
+            // projects that get here at the same time compute equal snapshots
+            index.snapshot = index.createSnapshot(project);
+        }
+        return index;
+    }
+
+    private Snapshot createSnapshot(Project project) {
+        if (getParameters().getInitializedInSettings().getOrElse(false)) {
+            return new Snapshot(getParameters().getProjectNames().get(), getParameters().getGroups().get());
+        }
+        // only the names are kept, the projects themselves may not even be configured yet
+        Map<String, String> names = new HashMap<>();
+        for (Project sub : project.getRootProject().getSubprojects()) {
+            names.putIfAbsent(sub.getName().replace("-", "."), sub.getName());
+        }
+        return new Snapshot(names, Collections.emptyMap());
+    }
+
+    /**
+     * @return name of the project that matches the Module Name suffix exactly, or null
+     */
+    @Nullable
+    public String perfectMatch(@Nullable String moduleNameSuffix) {
+        return moduleNameSuffix == null ? null : snapshot.projectNamesByDottedName.get(moduleNameSuffix);
+    }
+
+    /**
+     * @return name of the project with the longest name that matches the Module Name suffix up to a '.', or null
+     */
+    @Nullable
+    public String longestPrefixMatch(@Nullable String moduleNameSuffix) {
+        if (moduleNameSuffix == null) {
+            return null;
+        }
+        for (int dot = moduleNameSuffix.lastIndexOf('.'); dot > 0; dot = moduleNameSuffix.lastIndexOf('.', dot - 1)) {
+            String match = snapshot.projectNamesByDottedName.get(moduleNameSuffix.substring(0, dot));
+            if (match != null) {
+                return match;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the group of the project with the given path if it is known in settings, otherwise null
+     */
+    @Nullable
+    public String group(String projectPath) {
+        return snapshot.groupsByPath.get(projectPath);
+    }
+
+    private static final class Snapshot {
+        private final Map<String, String> projectNamesByDottedName;
+        private final Map<String, String> groupsByPath;
+
+        private Snapshot(Map<String, String> projectNamesByDottedName, Map<String, String> groupsByPath) {
+            this.projectNamesByDottedName = Collections.unmodifiableMap(new HashMap<>(projectNamesByDottedName));
+            this.groupsByPath = Collections.unmodifiableMap(new HashMap<>(groupsByPath));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import org.gradlex.javamodule.dependencies.SharedMappings;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The content of {@link SharedMappings#mappings} copied into a plain map, which is much faster to copy and to compare
+ * than the index the mappings are read from. A new snapshot is only taken if the mappings were modified or replaced.
+ */
+public class SharedMappingsSnapshot {
+
+    @Nullable
+    private static SharedMappingsSnapshot current;
+
+    private final Map<String, String> source;
+    private final int version;
+    private final Map<String, String> mappings;
+    @Nullable
+    private volatile InvertedMapping inverted;
+
+    private SharedMappingsSnapshot(Map<String, String> source, int version) {
+        this.source = source;
+        this.version = version;
+        this.mappings = Collections.unmodifiableMap(new HashMap<>(source));
+    }
+
+    public static synchronized SharedMappingsSnapshot get() {
+        Map<String, String> source = SharedMappings.mappings;
+        if (!(source instanceof CopyOnWriteMapping)) {
+            // replaced by the build, changes can not be tracked
+            return new SharedMappingsSnapshot(source, 0);
+        }
+        int version = ((CopyOnWriteMapping) source).version();
+        SharedMappingsSnapshot snapshot = current;
+        if (snapshot == null || snapshot.source != source || snapshot.version != version) {
+            snapshot = new SharedMappingsSnapshot(source, version);
+            current = snapshot;
+        }
+        return snapshot;
+    }
+
+    public Map<String, String> mappings() {
+        return mappings;
+    }
+
+    /**
+     * @return the inverted mappings, built on first use
+     */
+    public InvertedMapping inverted() {
+        InvertedMapping result = inverted;
+        if (result == null) {
+            // threads that get here at the same time build equal mappings
+            result = new InvertedMapping(source);
+            inverted = result;
+        }
+        return result;
+    }
+}
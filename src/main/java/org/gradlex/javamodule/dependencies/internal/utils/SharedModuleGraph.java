@@ -0,0 +1,54 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import org.gradle.api.Project;
+import org.gradle.api.initialization.Settings;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import javax.annotation.Nullable;
+
+/**
+ * Hands the {@link ModuleGraph} computed in settings to all projects. The graph is a parameter of this service, so
+ * that it is copied once for the build and not once for every project.
+ */
+public abstract class SharedModuleGraph implements BuildService<SharedModuleGraph.Parameters> {
+    private static final String SERVICE_NAME = "javaModuleDependenciesModuleGraph";
+
+    public interface Parameters extends BuildServiceParameters {
+        Property<ModuleGraph> getModuleGraph();
+    }
+
+    /**
+     * Call this after the settings are evaluated, when all Modules are known.
+     */
+    public static void register(Settings settings, ModuleGraph moduleGraph) {
+        settings.getGradle().getSharedServices().registerIfAbsent(SERVICE_NAME, SharedModuleGraph.class, spec ->
+                spec.getParameters().getModuleGraph().set(moduleGraph));
+    }
+
+    /**
+     * @return the graph registered in settings, or null if there is none
+     */
+    @Nullable
+    public static ModuleGraph get(Project project) {
+        return project.getGradle().getSharedServices().registerIfAbsent(SERVICE_NAME, SharedModuleGraph.class, spec -> { })
+                .get().getParameters().getModuleGraph().getOrNull();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.ValueSource;
+import org.gradle.api.provider.ValueSourceParameters;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the module-info.java folders of many project folders through {@link ModuleDirectoryScanner}. Using a
+ * ValueSource, the configuration cache only tracks the result and not the individual file system accesses
+ * (or the persistent cache file that changes from build to build).
+ */
+public abstract class ValueSourceModuleDirectories implements ValueSource<Map<String, List<String>>, ValueSourceModuleDirectories.Parameter> {
+
+    public interface Parameter extends ValueSourceParameters {
+        ListProperty<String> getDirs();
+        RegularFileProperty getCacheFile();
+    }
+
+    /**
+     * @return project folder path -> paths of the folders containing a module-info.java, relative to the project folder
+     */
+    @Override
+    public Map<String, List<String>> obtain() {
+        return ModuleDirectoryScanner.moduleInfoPaths(getParameters().getDirs().get(), getParameters().getCacheFile().get().getAsFile());
+    }
+}
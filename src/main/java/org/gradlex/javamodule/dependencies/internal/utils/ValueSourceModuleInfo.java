@@ -23,7 +23,6 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Scanner;
 
 public abstract class ValueSourceModuleInfo implements ValueSource<ModuleInfo, ValueSourceModuleInfo.Parameter> {
 
@@ -37,11 +36,7 @@ public abstract class ValueSourceModuleInfo implements ValueSource<ModuleInfo, V
         File file = new File(parameters.getDir().get().getAsFile(), "module-info.java");
         if (file.isFile()) {
             try {
-                try (Scanner scan = new Scanner(file)) {
-                    scan.useDelimiter("\\Z");
-                    String content = scan.next();
-                    return new ModuleInfo(content);
-                }
+                return ModuleInfoParseCache.parse(file);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
@@ -0,0 +1,62 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.ValueSource;
+import org.gradle.api.provider.ValueSourceParameters;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the module-info.java files of many folders in parallel. Using one ValueSource for all folders registered
+ * in settings keeps the configuration cache fingerprint small.
+ */
+public abstract class ValueSourceModuleInfos implements ValueSource<Map<String, ModuleInfo>, ValueSourceModuleInfos.Parameter> {
+    private static final Logger LOGGER = (Logger) LoggerFactory.getLogger(ValueSourceModuleInfos.class);
+
+    interface Parameter extends ValueSourceParameters {
+        ListProperty<String> getDirs();
+    }
+
+    /**
+     * @return folder path to parsed module-info.java for all folders that contain a module-info.java file
+     */
+    @Override
+    public Map<String, ModuleInfo> obtain() {
+        Map<String, ModuleInfo> result = getParameters().getDirs().get().parallelStream().distinct()
+                .filter(dir -> new File(dir, "module-info.java").isFile())
+                .collect(Collectors.toMap(dir -> dir, dir -> parse(new File(dir, "module-info.java"))));
+        LOGGER.debug("[Java Module Dependencies] module-info.java parse cache: "
+                + ModuleInfoParseCache.getHits() + " hits, " + ModuleInfoParseCache.getMisses() + " misses");
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static ModuleInfo parse(File moduleInfoFile) {
+        try {
+            return ModuleInfoParseCache.parse(moduleInfoFile);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
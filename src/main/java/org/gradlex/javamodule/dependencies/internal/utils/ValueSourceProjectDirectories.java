@@ -0,0 +1,46 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.internal.utils;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.ValueSource;
+import org.gradle.api.provider.ValueSourceParameters;
+
+import java.util.List;
+
+/**
+ * Searches a folder tree for project folders through {@link ModuleDirectoryScanner#projectDirs}. Using a
+ * ValueSource, the configuration cache only tracks the folders found and not each folder that was listed.
+ */
+public abstract class ValueSourceProjectDirectories implements ValueSource<List<String>, ValueSourceProjectDirectories.Parameter> {
+
+    public interface Parameter extends ValueSourceParameters {
+        DirectoryProperty getRoot();
+        ListProperty<String> getIncludes();
+        ListProperty<String> getExcludes();
+    }
+
+    /**
+     * @return paths of the project folders, relative to the root folder
+     */
+    @Override
+    public List<String> obtain() {
+        return ModuleDirectoryScanner.projectDirs(getParameters().getRoot().get().getAsFile(),
+                getParameters().getIncludes().get(), getParameters().getExcludes().get());
+    }
+}
@@ -26,6 +26,7 @@ import org.gradle.api.tasks.Classpath;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.diagnostics.DependencyReportTask;
 import org.gradlex.javamodule.dependencies.internal.diagnostics.AsciiModuleDependencyReportRenderer;
+import org.gradlex.javamodule.dependencies.internal.transforms.ModuleMetadataTransform;
 
 import javax.inject.Inject;
 import java.util.Collections;
@@ -38,7 +39,7 @@ public abstract class ModuleDependencyReport extends DependencyReportTask {
     public abstract MapProperty<String, ArtifactCollection> getModuleArtifacts();
 
     /**
-     * Required to track all Jar files as input of the task.
+     * Required to track the module metadata of all Jar files as input of the task.
      * Although they are only accessed through getModuleArtifacts().
      */
     @Classpath
@@ -67,8 +68,8 @@ public abstract class ModuleDependencyReport extends DependencyReportTask {
         getModulePath().setFrom();
         getModuleArtifacts().set(Collections.emptyMap());
         for (Configuration conf : getConfigurations()) {
-            getModulePath().from(conf);
-            getModuleArtifacts().put(conf.getName(), getProviders().provider(() -> conf.getIncoming().getArtifacts()));
+            getModulePath().from(getProviders().provider(() -> ModuleMetadataTransform.moduleMetadata(conf).getArtifactFiles()));
+            getModuleArtifacts().put(conf.getName(), getProviders().provider(() -> ModuleMetadataTransform.moduleMetadata(conf)));
         }
     }
 }
@@ -19,20 +19,19 @@ package org.gradlex.javamodule.dependencies.tasks;
 import com.autonomousapps.AbstractPostProcessingTask;
 import com.autonomousapps.model.Advice;
 import org.gradle.api.artifacts.ArtifactCollection;
-import org.gradle.api.artifacts.component.ComponentIdentifier;
-import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
-import org.gradle.api.artifacts.component.ProjectComponentIdentifier;
-import org.gradle.api.artifacts.result.ResolvedArtifactResult;
-import org.gradle.api.capabilities.Capability;
+import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.MapProperty;
 import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
+import org.gradlex.javamodule.dependencies.internal.utils.ModuleArtifactsIndex;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.HashMap;
@@ -41,10 +40,10 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import static org.gradle.api.plugins.JavaPlugin.RUNTIME_ONLY_CONFIGURATION_NAME;
-import static org.gradlex.javamodule.dependencies.internal.utils.ModuleJar.readModuleNameFromJarFile;
 
 @CacheableTask
 public abstract class ModuleDirectivesScopeCheck extends AbstractPostProcessingTask {
@@ -62,18 +61,51 @@ public abstract class ModuleDirectivesScopeCheck extends AbstractPostProcessingT
         SCOPES_TO_DIRECTIVES_BUILD_FILE_DSL.put("implementation", "requires");
     }
 
-    @Input
+    /**
+     * Source set name -> absolute path of the file declaring the dependencies ('module-info.java' or build file).
+     * The paths only appear in the failure message. They are tracked as input through getDependencyDeclarations().
+     */
+    @Internal
     public abstract MapProperty<String, String> getSourceSets();
 
     @Internal
     public abstract ListProperty<ArtifactCollection> getModuleArtifacts();
 
+    /**
+     * Required to track the module metadata (Module Names) of all Jar files as input of the task.
+     * Although they are only accessed through getModuleArtifacts().
+     */
+    @Classpath
+    public abstract ConfigurableFileCollection getModulePath();
+
+    /**
+     * @return source set name -> name of the file declaring the dependencies ('module-info.java' or the build file)
+     */
+    @Input
+    public Map<String, String> getDependencyDeclarations() {
+        return getSourceSets().get().entrySet().stream().collect(Collectors.toMap(
+                Map.Entry::getKey, e -> new File(e.getValue()).getName(), (a, b) -> a, TreeMap::new));
+    }
+
+    /**
+     * @return coordinates and capabilities of the module artifacts per classpath, in the order of lookup
+     */
+    @Input
+    public List<List<String>> getModuleArtifactCoordinates() {
+        return getModuleArtifacts().get().stream().map(c -> c.getArtifacts().stream()
+                .map(a -> a.getId().getComponentIdentifier().getDisplayName() + " " + a.getVariant().getCapabilities().stream()
+                        .map(cap -> cap.getGroup() + ":" + cap.getName()).collect(Collectors.joining(",")))
+                .collect(Collectors.toList())
+        ).collect(Collectors.toList());
+    }
+
     @OutputFile
     public abstract RegularFileProperty getReport();
 
     @TaskAction
     public void analyze() throws IOException {
         Set<Advice> projectAdvice = projectAdvice().getDependencyAdvice();
+        ModuleArtifactsIndex moduleNames = new ModuleArtifactsIndex(getModuleArtifacts().get());
 
         StringBuilder message = new StringBuilder();
         for (Map.Entry<String, String> sourceSet : getSourceSets().get().entrySet()) {
@@ -83,7 +115,7 @@ public abstract class ModuleDirectivesScopeCheck extends AbstractPostProcessingT
             ).filter(a ->
                     sourceSet.getKey().equals(sourceSetName(a.getToConfiguration()))
             ).map(a ->
-                    declaration(a.getToConfiguration(), a.getCoordinates().getIdentifier(), a.getCoordinates().getGradleVariantIdentification().getCapabilities(), inBuildFile)
+                    declaration(a.getToConfiguration(), a.getCoordinates().getIdentifier(), a.getCoordinates().getGradleVariantIdentification().getCapabilities(), inBuildFile, moduleNames)
             ).sorted().collect(Collectors.toList());
 
             List<String> toRemove = projectAdvice.stream().filter(a ->
@@ -91,7 +123,7 @@ public abstract class ModuleDirectivesScopeCheck extends AbstractPostProcessingT
             ).filter(a ->
                     sourceSet.getKey().equals(sourceSetName(a.getFromConfiguration()))
             ).map(a ->
-                    declaration(a.getFromConfiguration(), a.getCoordinates().getIdentifier(), a.getCoordinates().getGradleVariantIdentification().getCapabilities(), inBuildFile)
+                    declaration(a.getFromConfiguration(), a.getCoordinates().getIdentifier(), a.getCoordinates().getGradleVariantIdentification().getCapabilities(), inBuildFile, moduleNames)
             ).sorted().collect(Collectors.toList());
 
             if (!toAdd.isEmpty() || !toRemove.isEmpty()) {
@@ -129,35 +161,14 @@ public abstract class ModuleDirectivesScopeCheck extends AbstractPostProcessingT
         }
     }
 
-    private String declaration(String conf, String coordinates, Set<String> capabilities, boolean inBuildFile) {
+    private String declaration(String conf, String coordinates, Set<String> capabilities, boolean inBuildFile, ModuleArtifactsIndex moduleNames) {
         String capability = capabilities.isEmpty() ? coordinates : capabilities.iterator().next();
-        ResolvedArtifactResult moduleJar = getModuleArtifacts().get().stream().flatMap(c -> c.getArtifacts().stream()).filter(a ->
-                coordinatesEquals(coordinates, capability, a)).findFirst().orElse(null);
-        try {
-            String moduleName = moduleJar == null ? coordinates : readModuleNameFromJarFile(moduleJar.getFile());
-            if (inBuildFile) {
-                return directive(conf, SCOPES_TO_DIRECTIVES_BUILD_FILE_DSL) + "(\"" + moduleName + "\")";
-            } else {
-                return directive(conf, SCOPES_TO_DIRECTIVES) + " " + moduleName + ";";
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
-    private boolean coordinatesEquals(String coordinates, String capability, ResolvedArtifactResult selected) {
-        ComponentIdentifier id = selected.getId().getComponentIdentifier();
-        List<Capability> capabilities = selected.getVariant().getCapabilities();
-        if (capabilities.stream().noneMatch(c -> capability.endsWith(":" + c.getName()))) {
-            return false;
-        }
-        if (id instanceof ModuleComponentIdentifier) {
-            return coordinates.equals(((ModuleComponentIdentifier) id).getModuleIdentifier().toString());
-        }
-        if (id instanceof ProjectComponentIdentifier) {
-            return coordinates.equals(((ProjectComponentIdentifier) id).getProjectPath());
+        String moduleName = moduleNames.moduleName(coordinates, capability);
+        if (inBuildFile) {
+            return directive(conf, SCOPES_TO_DIRECTIVES_BUILD_FILE_DSL) + "(\"" + moduleName + "\")";
+        } else {
+            return directive(conf, SCOPES_TO_DIRECTIVES) + " " + moduleName + ";";
         }
-        return false;
     }
 
     private String sourceSetName(String configurationName) {
@@ -16,6 +16,7 @@
 
 package org.gradlex.javamodule.dependencies.tasks;
 
+import org.gradlex.javamodule.dependencies.SharedMappings;
 import org.gradlex.javamodule.dependencies.internal.utils.ModuleInfo;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.RegularFileProperty;
@@ -56,6 +57,9 @@ public abstract class ModuleInfoGenerate extends DefaultTask {
     @Input
     public abstract ListProperty<String> getRuntimeOnlyDependencies();
 
+    /**
+     * The 'Module Name -> GA' mappings of the project; the mappings shipped with the plugin are not part of it.
+     */
     @Input
     public abstract MapProperty<String, String> getModuleNameToGA();
 
@@ -109,6 +113,7 @@ public abstract class ModuleInfoGenerate extends DefaultTask {
         if (!gaOrProjectModuleName.contains(":")) {
             return gaOrProjectModuleName;
         }
-        return getModuleNameToGA().get().get(gaOrProjectModuleName);
+        String moduleName = getModuleNameToGA().get().get(gaOrProjectModuleName);
+        return moduleName != null ? moduleName : SharedMappings.mappings.get(gaOrProjectModuleName);
     }
 }
@@ -16,188 +16,296 @@
 
 package org.gradlex.javamodule.dependencies.tasks;
 
+import groovy.json.JsonOutput;
 import org.gradle.api.DefaultTask;
-import org.gradle.api.Project;
-import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ArtifactCollection;
 import org.gradle.api.artifacts.component.ComponentIdentifier;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.artifacts.component.ProjectComponentIdentifier;
 import org.gradle.api.artifacts.result.ResolvedArtifactResult;
 import org.gradle.api.capabilities.Capability;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.ListProperty;
-import org.gradle.api.tasks.InputFiles;
-import org.gradle.api.tasks.SourceSet;
-import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
-import org.gradlex.javamodule.dependencies.JavaModuleDependenciesExtension;
-import org.gradlex.javamodule.dependencies.internal.utils.ModuleInfo;
+import org.gradlex.javamodule.dependencies.internal.transforms.ModuleMetadataTransform;
+import org.gradlex.javamodule.dependencies.internal.utils.InvertedMapping;
+import org.gradlex.javamodule.dependencies.internal.utils.ModuleJarDescriptor;
+import org.gradlex.javamodule.dependencies.internal.utils.ModuleNameLookup;
 
-import javax.inject.Inject;
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
-import static org.gradlex.javamodule.dependencies.internal.utils.ModuleJar.isRealModule;
-import static org.gradlex.javamodule.dependencies.internal.utils.ModuleJar.readModuleNameFromJarFile;
 
+/**
+ * Analyses the Module Path, prints the result and writes it to a text and a JSON report. If the task is up-to-date
+ * or taken from the build cache, nothing is printed and the result can be found in the reports.
+ */
+@CacheableTask
 public abstract class ModulePathAnalysis extends DefaultTask {
-    private final String projectName;
-    private final SourceSetContainer sourceSets;
-    private final JavaModuleDependenciesExtension javaModuleDependencies;
-
-    @InputFiles
-    public abstract ListProperty<Configuration> getClasspathConfigurations() ;
-
-    @Inject
-    public ModulePathAnalysis(Project project) {
-        this.projectName = project.getName();
-        this.sourceSets = project.getExtensions().getByType(SourceSetContainer.class);
-        this.javaModuleDependencies = project.getExtensions().getByType(JavaModuleDependenciesExtension.class);
+
+    /**
+     * Module metadata of the Jars on the classpaths to analyse, see {@link ModuleMetadataTransform}.
+     */
+    @Internal
+    public abstract ListProperty<ArtifactCollection> getModuleArtifacts();
+
+    /**
+     * Required to track the module metadata of all Jar files as input of the task.
+     * Although they are only accessed through getModuleArtifacts().
+     */
+    @Classpath
+    public abstract ConfigurableFileCollection getModulePath();
+
+    /**
+     * Path of the project, recorded in the JSON report for aggregation (see {@link ModulePathAnalysisAggregation}).
+     */
+    @Input
+    public abstract Property<String> getProjectPath();
+
+    /**
+     * Module Name prefix of the project's own Modules ("" if there is none).
+     */
+    @Input
+    public abstract Property<String> getOwnModuleNamesPrefix();
+
+    /**
+     * The 'Module Name -> GA' mappings of the project; the mappings shipped with the plugin are not part of it.
+     */
+    @Input
+    public abstract MapProperty<String, String> getModuleNameToGA();
+
+    @Input
+    public abstract MapProperty<String, String> getModuleNamePrefixToGroup();
+
+    @OutputFile
+    public abstract RegularFileProperty getReport();
+
+    @OutputFile
+    public abstract RegularFileProperty getJsonReport();
+
+    /**
+     * The components (including versions and capabilities) the module metadata files belong to.
+     * The file names alone are not tracked as input by '@Classpath'.
+     */
+    @Input
+    public List<String> getModulePathComponents() {
+        return getModuleArtifacts().get().stream().flatMap(c -> c.getArtifacts().stream())
+                .map(a -> a.getId().getComponentIdentifier().getDisplayName() + " " + a.getVariant().getCapabilities().stream()
+                        .map(c -> c.getGroup() + ":" + c.getName()).collect(Collectors.joining(",")))
+                .distinct().sorted().collect(Collectors.toList());
     }
 
     @TaskAction
     public void report() throws IOException {
-        Set<String> usedMappings = new TreeSet<>();
-        Set<String> nonModules = new TreeSet<>();
-        Set<String> missingMappings = new TreeSet<>();
-        Set<String> wrongMappings = new TreeSet<>();
-
-        SourceSet main = sourceSets.getByName(SourceSet.MAIN_SOURCE_SET_NAME);
-        String ownModuleNamesPrefix = "";
-
-        for (File folder : main.getJava().getSrcDirs()) {
-            File file = new File(folder, "module-info.java");
-            if (file.exists()) {
-                try(Stream<String> lines = Files.lines(file.toPath())) {
-                    String fileContent = lines.collect(Collectors.joining("\n"));
-                    ownModuleNamesPrefix = new ModuleInfo(fileContent).moduleNamePrefix(projectName, main.getName(), false);
-                }
-                break;
+        Map<String, Finding> usedMappings = new TreeMap<>();
+        Map<String, Finding> nonModules = new TreeMap<>();
+        Map<String, Finding> missingMappings = new TreeMap<>();
+        Map<String, Finding> wrongMappings = new TreeMap<>();
+
+        // Most Jars are on several classpaths; look at each of them only once
+        Map<File, ResolvedArtifactResult> artifacts = new LinkedHashMap<>();
+        for (ArtifactCollection classPath: getModuleArtifacts().get()) {
+            for (ResolvedArtifactResult result : classPath) {
+                String fileName = ModuleMetadataTransform.originalFileName(result.getFile());
+                if (fileName.endsWith(".jar") || fileName.equals("classes")) {
+                    artifacts.putIfAbsent(result.getFile(), result);
+                } // else: Not an artifact with Java classes (e.g. resources folder of local project)
             }
         }
+        Map<File, ModuleJarDescriptor> moduleJars = artifacts.keySet().parallelStream().collect(
+                Collectors.toMap(Function.identity(), ModulePathAnalysis::readModuleMetadata));
 
-        for (Configuration classPath: getClasspathConfigurations().get()) {
-            collect(classPath, usedMappings, nonModules, missingMappings, wrongMappings, ownModuleNamesPrefix);
+        // results are collected in sorted maps, so the order in which artifacts are processed does not matter
+        ModuleNameLookup moduleNameLookup = new ModuleNameLookup(getModuleNameToGA().get());
+        InvertedMapping groupToModuleNamePrefixes = new InvertedMapping(getModuleNamePrefixToGroup().get());
+        for (ResolvedArtifactResult result : artifacts.values()) {
+            Finding finding = analyse(result, moduleJars.get(result.getFile()), moduleNameLookup, groupToModuleNamePrefixes);
+            boolean isModuleForReal = finding.actualModuleName != null;
+            if (finding.moduleName != null && isModuleForReal) {
+                usedMappings.put((finding.explicit ? "" : "[AUTO] ") + finding.mapping(), finding);
+            }
+            if (finding.moduleName == null && !isModuleForReal) {
+                nonModules.put(finding.ga + finding.version(), finding);
+            }
+            if (finding.moduleName == null && isModuleForReal) {
+                missingMappings.put("moduleNameToGA.put(\"" + finding.actualModuleName + "\", \"" + finding.ga + "\")", finding);
+            }
+            if (finding.moduleName != null && !isModuleForReal) {
+                wrongMappings.put(finding.mapping(), finding);
+            }
         }
 
-        p("");
-        p("[INFO] All Java Modules required by this project");
-        p("================================================");
-        for (String entry : usedMappings) {
-            p(entry);
+        StringBuilder sb = new StringBuilder();
+        p(sb, "");
+        p(sb, "[INFO] All Java Modules required by this project");
+        p(sb, "================================================");
+        for (String entry : usedMappings.keySet()) {
+            p(sb, entry);
         }
 
         if (!nonModules.isEmpty()) {
-            p("");
-            p("[WARN] Components that are NOT Java Modules");
-            p("===========================================");
-            for (String entry : nonModules) {
-                p(entry);
+            p(sb, "");
+            p(sb, "[WARN] Components that are NOT Java Modules");
+            p(sb, "===========================================");
+            for (String entry : nonModules.keySet()) {
+                p(sb, entry);
             }
-            p("");
-            p("Notes / Options:");
-            p("  - This may be ok if you use the Classpath (aka ALL-UNNAMED) in addition to the Module Path (automatic modules can see ALL-UNNAMED)");
-            p("  - Remove the dependencies or upgrade to higher versions");
-            p("  - Patch legacy Jars to Modules: https://github.com/gradlex-org/extra-java-module-info");
+            p(sb, "");
+            p(sb, "Notes / Options:");
+            p(sb, "  - This may be ok if you use the Classpath (aka ALL-UNNAMED) in addition to the Module Path (automatic modules can see ALL-UNNAMED)");
+            p(sb, "  - Remove the dependencies or upgrade to higher versions");
+            p(sb, "  - Patch legacy Jars to Modules: https://github.com/gradlex-org/extra-java-module-info");
         }
 
         if (!wrongMappings.isEmpty()) {
-            p("");
-            p("[WARN] Wrong Mappings: Components are not Modules");
-            p("=================================================");
-            for (String entry : wrongMappings) {
-                p(entry);
+            p(sb, "");
+            p(sb, "[WARN] Wrong Mappings: Components are not Modules");
+            p(sb, "=================================================");
+            for (String entry : wrongMappings.keySet()) {
+                p(sb, entry);
             }
-            p("");
-            p("Options to fix:");
-            p("  - Upgrade to newer version(s) - use ':recommendModuleVersions'");
-            p("  - Fix wrong mapping, via 'moduleNameToGA.put('...', '...')'");
-            p("  - If it is about a legacy Jar you want to use as Module, you need to patch it: https://github.com/gradlex-org/extra-java-module-info");
-            p("  - Report a wrong mapping in the plugin: https://github.com/gradlex-org/java-module-dependencies/issues/new");
+            p(sb, "");
+            p(sb, "Options to fix:");
+            p(sb, "  - Upgrade to newer version(s) - use ':recommendModuleVersions'");
+            p(sb, "  - Fix wrong mapping, via 'moduleNameToGA.put('...', '...')'");
+            p(sb, "  - If it is about a legacy Jar you want to use as Module, you need to patch it: https://github.com/gradlex-org/extra-java-module-info");
+            p(sb, "  - Report a wrong mapping in the plugin: https://github.com/gradlex-org/java-module-dependencies/issues/new");
         }
 
         if (!missingMappings.isEmpty()) {
-            p("");
-            p("[WARN] Missing Mappings");
-            p("=======================");
-            p("");
-            p("javaModuleDependencies {");
-            for (String entry : missingMappings) {
-                p("    " + entry);
+            p(sb, "");
+            p(sb, "[WARN] Missing Mappings");
+            p(sb, "=======================");
+            p(sb, "");
+            p(sb, "javaModuleDependencies {");
+            for (String entry : missingMappings.keySet()) {
+                p(sb, "    " + entry);
             }
-            p("}");
-            p("");
-            p("Options to fix:");
-            p("  - Add mappings in your convention plugins - you may copy&paste the above output");
-            p("  - Provide a PR to add missing mappings for well-known Modules to the plugin: https://github.com/gradlex-org/java-module-dependencies/pulls");
+            p(sb, "}");
+            p(sb, "");
+            p(sb, "Options to fix:");
+            p(sb, "  - Add mappings in your convention plugins - you may copy&paste the above output");
+            p(sb, "  - Provide a PR to add missing mappings for well-known Modules to the plugin: https://github.com/gradlex-org/java-module-dependencies/pulls");
         }
-        p("");
+        p(sb, "");
+
+        getLogger().lifecycle(sb.toString());
+        Files.write(getReport().get().getAsFile().toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("project", getProjectPath().get());
+        json.put("modules", json(usedMappings.values()));
+        json.put("nonModules", json(nonModules.values()));
+        json.put("wrongMappings", json(wrongMappings.values()));
+        json.put("missingMappings", json(missingMappings.values()));
+        Files.write(getJsonReport().get().getAsFile().toPath(), toJson(json).getBytes(StandardCharsets.UTF_8));
     }
 
-    private void collect(Configuration configuration, Set<String> usedMappings, Set<String> nonModules, Set<String> missingMappings, Set<String> wrongMappings, String ownModuleNamesPrefix) throws IOException {
-        for (ResolvedArtifactResult result : configuration.getIncoming().getArtifacts()) {
-            ComponentIdentifier id = result.getId().getComponentIdentifier();
-            File resultFile = result.getFile();
+    private static ModuleJarDescriptor readModuleMetadata(File moduleMetadata) {
+        try {
+            return ModuleMetadataTransform.read(moduleMetadata);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-            if (!resultFile.getName().endsWith(".jar") && !resultFile.getName().equals("classes")) {
-                // Not an artifact with Java classes (e.g. resources folder of local project)
-                continue;
-            }
+    private Finding analyse(ResolvedArtifactResult result, ModuleJarDescriptor moduleJar, ModuleNameLookup moduleNameLookup, InvertedMapping groupToModuleNamePrefixes) {
+        ComponentIdentifier id = result.getId().getComponentIdentifier();
+
+        String moduleName;
+        String version;
+        String ga;
 
-            String moduleName;
-            String version;
-            String ga;
-
-            if (id instanceof ProjectComponentIdentifier) {
-                String projectName = ((ProjectComponentIdentifier) id).getProjectName();
-                ga = id.getDisplayName();
-                version = "";
-                List<Capability> capabilities = result.getVariant().getCapabilities();
-                if (capabilities.isEmpty()) {
-                    moduleName = ownModuleNamesPrefix + "." + projectName;
-                } else {
-                    moduleName = ownModuleNamesPrefix + "." + capabilities.get(0).getName().replace("-", ".");
-                }
-            } else if (id instanceof ModuleComponentIdentifier){
-                ModuleComponentIdentifier moduleVersion = (ModuleComponentIdentifier) id;
-                ga = moduleVersion.getGroup() + ":" + moduleVersion.getModule();
-                version = " (" + moduleVersion.getVersion() + ")";
-                moduleName = javaModuleDependencies.moduleName(ga).getOrNull();
+        if (id instanceof ProjectComponentIdentifier) {
+            String projectName = ((ProjectComponentIdentifier) id).getProjectName();
+            ga = id.getDisplayName();
+            version = "";
+            List<Capability> capabilities = result.getVariant().getCapabilities();
+            if (capabilities.isEmpty()) {
+                moduleName = getOwnModuleNamesPrefix().get() + "." + projectName;
             } else {
-                ga = "";
-                version = "";
-                moduleName = null;
+                moduleName = getOwnModuleNamesPrefix().get() + "." + capabilities.get(0).getName().replace("-", ".");
             }
+        } else if (id instanceof ModuleComponentIdentifier){
+            ModuleComponentIdentifier moduleVersion = (ModuleComponentIdentifier) id;
+            ga = moduleVersion.getGroup() + ":" + moduleVersion.getModule();
+            version = moduleVersion.getVersion();
+            moduleName = moduleNameLookup.moduleName(moduleVersion.getGroup(), moduleVersion.getModule(), groupToModuleNamePrefixes);
+        } else {
+            ga = "";
+            version = "";
+            moduleName = null;
+        }
 
-            String actualModuleName = readModuleNameFromJarFile(resultFile);
-            boolean isModuleForReal = actualModuleName != null;
+        return new Finding(moduleName, ga, version, moduleJar.getName(), moduleJar.isExplicit());
+    }
 
-            if (moduleName != null && isModuleForReal) {
-                if (isRealModule(resultFile)) {
-                    usedMappings.add(moduleName + " -> " + ga + version);
-                } else {
-                    usedMappings.add("[AUTO] " + moduleName + " -> " + ga + version);
-                }
-            }
-            if (moduleName == null && !isModuleForReal) {
-                nonModules.add(ga + version);
-            }
-            if (moduleName == null && isModuleForReal) {
-                missingMappings.add("moduleNameToGA.put(\"" + actualModuleName + "\", \"" + ga + "\")");
-            }
-            if (moduleName != null && !isModuleForReal) {
-                wrongMappings.add(moduleName + " -> " + ga + version);
-            }
+    private List<Map<String, Object>> json(Collection<Finding> findings) {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (Finding f : findings) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("moduleName", f.moduleName);
+            entry.put("coordinates", f.ga);
+            entry.put("version", f.version.isEmpty() ? null : f.version);
+            entry.put("actualModuleName", f.actualModuleName);
+            entry.put("automatic", f.actualModuleName != null && !f.explicit);
+            entries.add(entry);
         }
+        return entries;
     }
 
-    private void p(String toPrint) {
-        System.out.println(toPrint);
+    /**
+     * The JSON reports are written with {@link JsonOutput} and read with {@link groovy.json.JsonSlurper}
+     * (see {@link ModulePathAnalysisAggregation}).
+     */
+    static String toJson(Map<String, Object> json) {
+        return JsonOutput.prettyPrint(JsonOutput.toJson(json)) + "\n";
     }
 
+    private void p(StringBuilder sb, String toPrint) {
+        sb.append(toPrint);
+        sb.append("\n");
+    }
+
+    private static class Finding {
+        private final String moduleName;
+        private final String ga;
+        private final String version;
+        private final String actualModuleName;
+        private final boolean explicit;
+
+        private Finding(@Nullable String moduleName, String ga, String version, @Nullable String actualModuleName, boolean explicit) {
+            this.moduleName = moduleName;
+            this.ga = ga;
+            this.version = version;
+            this.actualModuleName = actualModuleName;
+            this.explicit = explicit;
+        }
+
+        private String version() {
+            return version.isEmpty() ? "" : " (" + version + ")";
+        }
+
+        private String mapping() {
+            return moduleName + " -> " + ga + version();
+        }
+    }
 }
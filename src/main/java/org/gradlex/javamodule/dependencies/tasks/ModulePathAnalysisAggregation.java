@@ -0,0 +1,171 @@
+/*
+ * Copyright the GradleX team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradlex.javamodule.dependencies.tasks;
+
+import groovy.json.JsonSlurper;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.UntrackedTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.gradlex.javamodule.dependencies.tasks.ModulePathAnalysis.toJson;
+
+/**
+ * Combines the JSON reports of the {@link ModulePathAnalysis} tasks of all projects into one report. Each issue is
+ * listed once, together with the projects in which it occurs.
+ */
+@UntrackedTask(because = "Prints the report to the console; reading the analysis reports of the projects is cheap")
+public abstract class ModulePathAnalysisAggregation extends DefaultTask {
+
+    /**
+     * The 'analysis.json' files of the individual projects.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract ConfigurableFileCollection getAnalysisReports();
+
+    @OutputFile
+    public abstract RegularFileProperty getReport();
+
+    @OutputFile
+    public abstract RegularFileProperty getJsonReport();
+
+    @TaskAction
+    public void aggregate() throws IOException {
+        Map<String, Issue> nonModules = new TreeMap<>();
+        Map<String, Issue> wrongMappings = new TreeMap<>();
+        Map<String, Issue> missingMappings = new TreeMap<>();
+
+        for (File analysis : getAnalysisReports().getFiles()) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> json = (Map<String, Object>) new JsonSlurper().parse(analysis);
+            String project = (String) json.get("project");
+            for (Map<String, Object> entry : entries(json, "nonModules")) {
+                add(nonModules, entry.get("coordinates") + version(entry), entry, project);
+            }
+            for (Map<String, Object> entry : entries(json, "wrongMappings")) {
+                add(wrongMappings, entry.get("moduleName") + " -> " + entry.get("coordinates") + version(entry), entry, project);
+            }
+            for (Map<String, Object> entry : entries(json, "missingMappings")) {
+                add(missingMappings, "moduleNameToGA.put(\"" + entry.get("actualModuleName") + "\", \"" + entry.get("coordinates") + "\")", entry, project);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        p(sb, "");
+        p(sb, "[INFO] Module Paths of " + getAnalysisReports().getFiles().size() + " projects analysed");
+        if (!nonModules.isEmpty()) {
+            p(sb, "");
+            p(sb, "[WARN] Components that are NOT Java Modules");
+            p(sb, "===========================================");
+            for (Map.Entry<String, Issue> entry : nonModules.entrySet()) {
+                p(sb, entry.getKey() + " // " + String.join(", ", entry.getValue().projects));
+            }
+        }
+        if (!wrongMappings.isEmpty()) {
+            p(sb, "");
+            p(sb, "[WARN] Wrong Mappings: Components are not Modules");
+            p(sb, "=================================================");
+            for (Map.Entry<String, Issue> entry : wrongMappings.entrySet()) {
+                p(sb, entry.getKey() + " // " + String.join(", ", entry.getValue().projects));
+            }
+        }
+        if (!missingMappings.isEmpty()) {
+            p(sb, "");
+            p(sb, "[WARN] Missing Mappings");
+            p(sb, "=======================");
+            p(sb, "");
+            p(sb, "javaModuleDependencies {");
+            for (Map.Entry<String, Issue> entry : missingMappings.entrySet()) {
+                p(sb, "    " + entry.getKey() + " // " + String.join(", ", entry.getValue().projects));
+            }
+            p(sb, "}");
+        }
+        p(sb, "");
+        p(sb, "Details: run 'analyzeModulePath' in the individual projects");
+        p(sb, "");
+
+        Files.write(getReport().get().getAsFile().toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("nonModules", json(nonModules));
+        json.put("wrongMappings", json(wrongMappings));
+        json.put("missingMappings", json(missingMappings));
+        Files.write(getJsonReport().get().getAsFile().toPath(), toJson(json).getBytes(StandardCharsets.UTF_8));
+
+        getLogger().lifecycle(sb.toString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> entries(Map<String, Object> json, String name) {
+        return (List<Map<String, Object>>) json.get(name);
+    }
+
+    private String version(Map<String, Object> entry) {
+        Object version = entry.get("version");
+        return version == null ? "" : " (" + version + ")";
+    }
+
+    private void add(Map<String, Issue> issues, String issue, Map<String, Object> entry, String project) {
+        issues.computeIfAbsent(issue, i -> new Issue(entry)).projects.add(project);
+    }
+
+    private List<Map<String, Object>> json(Map<String, Issue> issues) {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (Issue issue : issues.values()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("moduleName", issue.entry.get("moduleName"));
+            entry.put("coordinates", issue.entry.get("coordinates"));
+            entry.put("version", issue.entry.get("version"));
+            entry.put("actualModuleName", issue.entry.get("actualModuleName"));
+            entry.put("projects", new ArrayList<>(issue.projects));
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private void p(StringBuilder sb, String toPrint) {
+        sb.append(toPrint);
+        sb.append("\n");
+    }
+
+    private static class Issue {
+        private final Map<String, Object> entry;
+        private final Set<String> projects = new TreeSet<>();
+
+        private Issue(Map<String, Object> entry) {
+            this.entry = entry;
+        }
+    }
+}
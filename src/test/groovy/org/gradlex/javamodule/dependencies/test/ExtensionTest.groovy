@@ -51,4 +51,102 @@ class ExtensionTest extends Specification {
 
     }
 
+    def "moduleNameToGA holds all mappings and can still be changed after the project was evaluated"() {
+        given:
+        file("gradle/modules.properties") << 'org.example.props=org.example:props'
+        appBuildFile << '''
+            javaModuleDependencies {
+                moduleNameToGA.put("com.fasterxml.jackson.core", "org.example:jackson")
+                val all = moduleNameToGA.get()
+                println("all: " + all["org.example.props"] + " " + all["com.fasterxml.jackson.core"] + " " + all["com.fasterxml.jackson.databind"])
+                println("name: " + moduleName("org.example:jackson").get())
+            }
+            afterEvaluate {
+                javaModuleDependencies.moduleNameToGA.put("org.example.late", "org.example:late")
+                println("late: " + javaModuleDependencies.ga("org.example.late").get() + " " + javaModuleDependencies.moduleName("org.example:late").get())
+            }
+        '''
+
+        when:
+        def result = build()
+
+        then:
+        result.output.contains('all: org.example:props org.example:jackson com.fasterxml.jackson.core:jackson-databind')
+        result.output.contains('name: com.fasterxml.jackson.core')
+        result.output.contains('late: org.example:late org.example.late')
+    }
+
+    def "finds the Module Name of coordinates, also if moduleNameToGA changes after a lookup"() {
+        given:
+        appBuildFile << '''
+            javaModuleDependencies {
+                moduleNameToGA.put("org.example.a", "org.example:lib")
+                moduleNameToGA.put("org.example.b", "org.example:other")
+                moduleNameToGA.put("org.example.c", "org.example:lib")
+                println("lib: " + moduleName("org.example:lib").get())
+                println("other: " + moduleName("org.example:other").get())
+                println("unknown: " + moduleName("org.example:unknown").getOrElse("none"))
+                println("shared: " + moduleName("com.fasterxml.jackson.core:jackson-core").get())
+                moduleNameToGA.put("org.example.d", "org.example:unknown")
+                println("added: " + moduleName("org.example:unknown").get())
+            }
+        '''
+
+        when:
+        def result = build()
+
+        then:
+        result.output.contains('''
+            lib: org.example.a
+            other: org.example.b
+            unknown: none
+            shared: com.fasterxml.jackson.core
+            added: org.example.d'''.stripIndent()
+        )
+    }
+
+    def "finds the group through the longest matching prefix, also if moduleNamePrefixToGroup changes after a lookup"() {
+        given:
+        appBuildFile << '''
+            javaModuleDependencies {
+                moduleNamePrefixToGroup.put("org.example.", "org.example")
+                moduleNamePrefixToGroup.put("org.example.ui.", "org.example.ui")
+                moduleNamePrefixToGroup.put("org.example.ui.core.", "org.example.core")
+                moduleNamePrefixToGroup.put("com.acme", "com.acme")
+                println("tools: " + ga("org.example.tools").get())
+                println("widgets: " + ga("org.example.ui.widgets").get())
+                println("corex: " + ga("org.example.ui.corex").get())
+                println("impl: " + ga("org.example.ui.core.impl").get())
+                println("acme: " + ga("com.acmeplus").get())
+                moduleNamePrefixToGroup.put("org.example.tools.", "org.example.tools")
+                println("cli: " + ga("org.example.tools.cli").get())
+            }
+        '''
+        libBuildFile << '''
+            javaModuleDependencies {
+                moduleNamePrefixToGroup.put("", "default")
+                moduleNamePrefixToGroup.put("org.", "org")
+                println("default: " + ga("com.acme").get())
+                println("org: " + ga("org.example").get())
+            }
+        '''
+
+        when:
+        def result = build()
+
+        then:
+        result.output.contains('''
+            tools: org.example:tools
+            widgets: org.example.ui:widgets
+            corex: org.example.ui:corex
+            impl: org.example.core:impl
+            acme: com.acme:plus
+            cli: org.example.tools:cli'''.stripIndent()
+        )
+        result.output.contains('''
+            default: default:com.acme
+            org: org:example'''.stripIndent()
+        )
+    }
+
 }
@@ -80,4 +80,36 @@ class LocalModuleMappingsTest extends Specification {
         then:
         runner(false, 'build')
     }
+
+    def "maps local modules to the project with the longest matching name"() {
+        given:
+        settingsFile << 'include("my-lib", "my-lib-extra")'
+        ["my-lib", "my-lib-extra"].each {
+            file("$it/build.gradle.kts") << '''
+                plugins {
+                    id("org.gradlex.java-module-dependencies")
+                    id("java-library")
+                    id("java-test-fixtures")
+                }
+            '''
+        }
+        file("my-lib/src/main/java/module-info.java") << 'module org.gradlex.test.my.lib { }'
+        file("my-lib/src/testFixtures/java/module-info.java") << 'module org.gradlex.test.my.lib.test.fixtures { }'
+        file("my-lib-extra/src/main/java/module-info.java") << 'module org.gradlex.test.my.lib.extra { }'
+        appModuleInfoFile << '''
+            module org.gradlex.test.app {
+                requires org.gradlex.test.my.lib;
+                requires org.gradlex.test.my.lib.extra;
+                requires org.gradlex.test.my.lib.test.fixtures;
+            }
+        '''
+
+        when:
+        def result = printCompileJars()
+
+        then:
+        result.output.contains('my-lib.jar')
+        result.output.contains('my-lib-extra.jar')
+        result.output.contains('my-lib-test-fixtures.jar')
+    }
 }
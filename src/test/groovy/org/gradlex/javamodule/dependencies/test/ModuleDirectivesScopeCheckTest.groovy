@@ -0,0 +1,142 @@
+package org.gradlex.javamodule.dependencies.test
+
+import org.gradlex.javamodule.dependencies.test.fixture.GradleBuild
+import spock.lang.IgnoreIf
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+import static org.gradle.testkit.runner.TaskOutcome.FROM_CACHE
+
+// The Dependency Analysis Plugin used here requires a recent Gradle version
+@IgnoreIf({ System.getProperty("gradleVersionUnderTest") })
+class ModuleDirectivesScopeCheckTest extends Specification {
+
+    @Delegate
+    GradleBuild build = new GradleBuild()
+
+    def setup() {
+        withDependencyAnalysis(build)
+    }
+
+    def "names the Module of a project in the advice"() {
+        given:
+        appModuleInfoFile << '''
+            module org.gradlex.test.app {
+                requires org.gradlex.test.lib;
+            }
+        '''
+        file("app/src/main/java/org/gradlex/test/app/Main.java") << '''
+            package org.gradlex.test.app;
+            public class Main {
+                public static void main(String[] args) { }
+            }
+        '''
+
+        when:
+        def result = runner(false, ':app:checkModuleDirectivesScope').buildAndFail()
+
+        then:
+        result.output.contains('''
+            |Please remove the following requires directives (or change to runtimeOnly):
+            |    requires org.gradlex.test.lib;'''.stripMargin())
+    }
+
+    def "names the Modules of test fixtures and external components in the advice"() {
+        given:
+        file("lib/src/testFixtures/java/module-info.java") << '''
+            module org.gradlex.test.lib.test.fixtures {
+                exports org.gradlex.test.lib.fixtures;
+            }
+        '''
+        file("lib/src/testFixtures/java/org/gradlex/test/lib/fixtures/Fixture.java") << '''
+            package org.gradlex.test.lib.fixtures;
+            public class Fixture { }
+        '''
+        appBuildFile << '''
+            moduleInfo {
+                version("org.slf4j", "2.0.16")
+            }
+        '''
+        appModuleInfoFile << '''
+            module org.gradlex.test.app {
+                requires org.gradlex.test.lib;
+                requires org.gradlex.test.lib.test.fixtures;
+                requires org.slf4j;
+            }
+        '''
+        file("app/src/main/java/org/gradlex/test/app/Main.java") << '''
+            package org.gradlex.test.app;
+            public class Main {
+                public static void main(String[] args) { new org.gradlex.test.lib.Lib(); }
+            }
+        '''
+
+        when:
+        def result = runner(false, ':app:checkModuleDirectivesScope').buildAndFail()
+
+        then:
+        result.output.contains('''
+            |Please remove the following requires directives (or change to runtimeOnly):
+            |    requires org.gradlex.test.lib.test.fixtures;
+            |    requires org.slf4j;'''.stripMargin())
+    }
+
+    def "takes the result from the build cache, also if the project is moved"() {
+        given:
+        def buildCache = Files.createTempDirectory("build-cache").toFile()
+        def otherBuild = new GradleBuild()
+        withDependencyAnalysis(otherBuild)
+        [build, otherBuild].each {
+            it.settingsFile << """
+                buildCache { local { directory = file("${buildCache.absolutePath.replace('\\', '/')}") } }
+            """
+            it.appModuleInfoFile << '''
+                module org.gradlex.test.app {
+                    requires org.gradlex.test.lib;
+                }
+            '''
+            it.file("app/src/main/java/org/gradlex/test/app/Main.java") << '''
+                package org.gradlex.test.app;
+                public class Main {
+                    public static void main(String[] args) { new org.gradlex.test.lib.Lib(); }
+                }
+            '''
+        }
+        runner(false, ':app:checkModuleDirectivesScope', '--build-cache').build()
+
+        when:
+        file('app/build').deleteDir()
+        def result = runner(false, ':app:checkModuleDirectivesScope', '--build-cache').build()
+
+        then:
+        result.task(':app:checkModuleDirectivesScope').outcome == FROM_CACHE
+
+        when:
+        result = otherBuild.runner(false, ':app:checkModuleDirectivesScope', '--build-cache').build()
+
+        then:
+        result.task(':app:checkModuleDirectivesScope').outcome == FROM_CACHE
+    }
+
+    private static void withDependencyAnalysis(GradleBuild build) {
+        build.file("build.gradle.kts") << '''
+            plugins { id("com.autonomousapps.dependency-analysis") }
+        '''
+        build.appBuildFile << '''
+            apply(plugin = "com.autonomousapps.dependency-analysis")
+        '''
+        build.libBuildFile << '''
+            apply(plugin = "com.autonomousapps.dependency-analysis")
+        '''
+        build.libModuleInfoFile << '''
+            module org.gradlex.test.lib {
+                exports org.gradlex.test.lib;
+            }
+        '''
+        build.file("lib/src/main/java/org/gradlex/test/lib/Lib.java") << '''
+            package org.gradlex.test.lib;
+            public class Lib { }
+        '''
+    }
+}
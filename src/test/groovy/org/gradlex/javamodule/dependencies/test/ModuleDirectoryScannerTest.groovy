@@ -0,0 +1,149 @@
+package org.gradlex.javamodule.dependencies.test
+
+import org.gradlex.javamodule.dependencies.internal.utils.ModuleDirectoryScanner
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+class ModuleDirectoryScannerTest extends Specification {
+
+    File root = Files.createTempDirectory("module-directories").toFile()
+    File cacheFile = new File(root, ".gradle/module-directories.bin")
+
+    def "reads unchanged folders from the cache file"() {
+        given:
+        def a = projectDir("a", "main")
+        def b = projectDir("b", "main", "test")
+
+        expect:
+        scan(a, b) == [(a.path): ["src/main/java"], (b.path): ["src/main/java", "src/test/java"]]
+
+        when: 'a change that keeps all modification times is not detected'
+        removeModuleInfoKeepingTimestamps(b, "test")
+
+        then:
+        scan(a, b) == [(a.path): ["src/main/java"], (b.path): ["src/main/java", "src/test/java"]]
+    }
+
+    def "rescans folders that changed"() {
+        given:
+        def a = projectDir("a", "main")
+        scan(a)
+
+        when:
+        new File(a, "src/main/java/module-info.java").delete()
+
+        then:
+        scan(a) == [(a.path): []]
+    }
+
+    def "does not persist folders that were modified just now"() {
+        given:
+        def a = projectDir("a", "main")
+        new File(a, "src/main/java").setLastModified(System.currentTimeMillis())
+        scan(a)
+
+        when:
+        removeModuleInfoKeepingTimestamps(a, "main")
+
+        then:
+        scan(a) == [(a.path): []]
+    }
+
+    def "removes folders that are no longer inspected from the cache file"() {
+        given:
+        def a = projectDir("a", "main")
+        def b = projectDir("b", "main")
+        scan(a, b)
+
+        when:
+        scan(a)
+        removeModuleInfoKeepingTimestamps(b, "main")
+
+        then: 'b is scanned again'
+        scan(a, b) == [(a.path): ["src/main/java"], (b.path): []]
+    }
+
+    def "ignores a corrupt cache file and replaces it"() {
+        given:
+        def a = projectDir("a", "main")
+        cacheFile.parentFile.mkdirs()
+        cacheFile.bytes = [0, 0, 0, 1, 0, 0, 0, 5, 1, 2, 3] as byte[]
+
+        expect:
+        scan(a) == [(a.path): ["src/main/java"]]
+
+        when:
+        removeModuleInfoKeepingTimestamps(a, "main")
+
+        then: 'the replaced file is used'
+        scan(a) == [(a.path): ["src/main/java"]]
+    }
+
+    def "finds project folders matching include patterns"() {
+        given:
+        ["p1/modules/lib", "p2/modules/app", "p1/build/modules/generated"].each {
+            new File(root, "$it/src").mkdirs()
+        }
+        new File(root, "p1/modules/nosrc/java").mkdirs()
+
+        expect:
+        ModuleDirectoryScanner.projectDirs(root, ["*/modules/*"], []) == ["p1/modules/lib", "p2/modules/app"]
+        ModuleDirectoryScanner.projectDirs(root, ["**"], ["p2/**"]) == ["p1/modules/lib"]
+    }
+
+    def "an exclude pattern ending with '/**' also excludes the folder itself"() {
+        given:
+        new File(root, "legacy/src").mkdirs()
+        new File(root, "legacy/old/src").mkdirs()
+        new File(root, "lib/src").mkdirs()
+
+        expect:
+        ModuleDirectoryScanner.projectDirs(root, ["**"], ["legacy/**"]) == ["lib"]
+        ModuleDirectoryScanner.projectDirs(root, ["**"], []) == ["legacy", "legacy/old", "lib"]
+    }
+
+    def "follows symbolic links to other folders only once and never in circles"() {
+        given:
+        new File(root, "a/lib/src").mkdirs()
+        Files.createSymbolicLink(new File(root, "a/root").toPath(), root.toPath())
+        Files.createSymbolicLink(new File(root, "a/self").toPath(), new File(root, "a").toPath())
+        Files.createSymbolicLink(new File(root, "b").toPath(), new File(root, "a").toPath())
+        def external = Files.createTempDirectory("external-modules").toFile()
+        new File(external, "ext/src").mkdirs()
+        Files.createSymbolicLink(new File(external, "back").toPath(), external.toPath())
+        Files.createSymbolicLink(new File(root, "external1").toPath(), external.toPath())
+        Files.createSymbolicLink(new File(root, "external2").toPath(), external.toPath())
+
+        expect:
+        ModuleDirectoryScanner.projectDirs(root, ["**"], []) == ["a/lib", "external1/ext"]
+    }
+
+    private Map<String, List<String>> scan(File... projectDirs) {
+        ModuleDirectoryScanner.moduleInfoPaths(projectDirs*.path, cacheFile)
+    }
+
+    private File projectDir(String name, String... sourceSets) {
+        def projectDir = new File(root, name)
+        sourceSets.each {
+            def moduleInfo = new File(projectDir, "src/$it/java/module-info.java")
+            moduleInfo.parentFile.mkdirs()
+            moduleInfo << "module $name.$it { }"
+        }
+        // modified long enough ago to be persisted
+        long past = System.currentTimeMillis() - 60_000
+        sourceSets.each {
+            new File(projectDir, "src/$it/java").setLastModified(past)
+            new File(projectDir, "src/$it").setLastModified(past)
+        }
+        new File(projectDir, "src").setLastModified(past)
+        projectDir
+    }
+
+    private static void removeModuleInfoKeepingTimestamps(File projectDir, String sourceSet) {
+        def javaDir = new File(projectDir, "src/$sourceSet/java")
+        long lastModified = javaDir.lastModified()
+        new File(javaDir, "module-info.java").delete()
+        javaDir.setLastModified(lastModified)
+    }
+}
@@ -0,0 +1,93 @@
+package org.gradlex.javamodule.dependencies.test
+
+import org.gradlex.javamodule.dependencies.internal.utils.ModuleInfoParseCache
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.attribute.FileTime
+
+import static org.gradlex.javamodule.dependencies.internal.utils.ModuleInfo.Directive.REQUIRES
+
+class ModuleInfoParseCacheTest extends Specification {
+
+    File moduleInfoFile = new File(Files.createTempDirectory("parse-cache").toFile(), "module-info.java")
+
+    def setup() {
+        ModuleInfoParseCache.clear()
+    }
+
+    def "parses a file only once as long as it does not change"() {
+        given:
+        moduleInfoFile << 'module some.thing { requires foo.bar; }'
+        outdateModificationTime()
+
+        when:
+        def first = ModuleInfoParseCache.parse(moduleInfoFile)
+        def second = ModuleInfoParseCache.parse(moduleInfoFile)
+
+        then:
+        first.is(second)
+        ModuleInfoParseCache.misses == 1
+        ModuleInfoParseCache.hits == 1
+    }
+
+    def "re-parses a file if its content changes"() {
+        given:
+        moduleInfoFile << 'module some.thing { requires foo.bar; }'
+        outdateModificationTime()
+        def first = ModuleInfoParseCache.parse(moduleInfoFile)
+
+        when:
+        moduleInfoFile.text = 'module some.thing { requires foo.baz; }'
+        def second = ModuleInfoParseCache.parse(moduleInfoFile)
+
+        then:
+        first.get(REQUIRES) == ["foo.bar"]
+        second.get(REQUIRES) == ["foo.baz"]
+    }
+
+    def "reuses the parsed file if only the modification time changes"() {
+        given:
+        moduleInfoFile << 'module some.thing { requires foo.bar; }'
+        def first = ModuleInfoParseCache.parse(moduleInfoFile)
+
+        when:
+        outdateModificationTime()
+        def second = ModuleInfoParseCache.parse(moduleInfoFile)
+
+        then:
+        first.is(second)
+        ModuleInfoParseCache.misses == 1
+    }
+
+    def "forgets a file that was deleted"() {
+        given:
+        moduleInfoFile << 'module some.thing { }'
+        ModuleInfoParseCache.parse(moduleInfoFile)
+
+        when:
+        moduleInfoFile.delete()
+        ModuleInfoParseCache.parse(moduleInfoFile)
+
+        then:
+        thrown(IOException)
+        ModuleInfoParseCache.size() == 0
+    }
+
+    def "hands out module infos that can not be modified"() {
+        given:
+        moduleInfoFile << 'module some.thing { requires foo.bar; }'
+        def moduleInfo = ModuleInfoParseCache.parse(moduleInfoFile)
+
+        when:
+        moduleInfo.get(REQUIRES).add("foo.baz")
+
+        then:
+        thrown(UnsupportedOperationException)
+        ModuleInfoParseCache.parse(moduleInfoFile).get(REQUIRES) == ["foo.bar"]
+    }
+
+    private void outdateModificationTime() {
+        Files.setLastModifiedTime(moduleInfoFile.toPath(), FileTime.fromMillis(System.currentTimeMillis() - 60_000))
+    }
+}
@@ -101,4 +101,23 @@ class ModuleInfoParseTest extends Specification {
         moduleInfo.get(REQUIRES_RUNTIME) == ["foo.bar.lo"]
     }
 
+    def "supports directives that span multiple lines or share a line"() {
+        given:
+        def moduleInfo = new ModuleInfo('''
+            module some.thing {
+                requires static
+                    transitive foo.bar.la; requires foo.bar.lo;
+                requires
+                    /*runtime*/ foo.bar.li;
+            }
+        ''')
+
+        expect:
+        moduleInfo.get(REQUIRES) == ["foo.bar.lo"]
+        moduleInfo.get(REQUIRES_TRANSITIVE) == []
+        moduleInfo.get(REQUIRES_STATIC) == []
+        moduleInfo.get(REQUIRES_STATIC_TRANSITIVE) == ["foo.bar.la"]
+        moduleInfo.get(REQUIRES_RUNTIME) == ["foo.bar.li"]
+    }
+
 }
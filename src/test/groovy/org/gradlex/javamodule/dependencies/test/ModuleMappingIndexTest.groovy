@@ -0,0 +1,88 @@
+package org.gradlex.javamodule.dependencies.test
+
+import org.gradlex.javamodule.dependencies.SharedMappings
+import org.gradlex.javamodule.dependencies.internal.utils.CopyOnWriteMapping
+import org.gradlex.javamodule.dependencies.internal.utils.InvertedMapping
+import org.gradlex.javamodule.dependencies.internal.utils.ModuleMappingIndex
+import spock.lang.Specification
+
+class ModuleMappingIndexTest extends Specification {
+
+    static final String RESOURCES = "src/main/resources/org/gradlex/javamodule/dependencies"
+
+    def "shipped index contains exactly the mappings of the properties files"() {
+        given:
+        def properties = new Properties()
+        new File(RESOURCES, "unique_modules.properties").withInputStream { properties.load(it) }
+        new File(RESOURCES, "modules.properties").withInputStream { properties.load(it) }
+
+        expect:
+        SharedMappings.mappings.size() == properties.size()
+        properties.every { key, value -> SharedMappings.mappings.get(key) == value }
+        SharedMappings.mappings.entrySet().every { properties.get(it.key) == it.value }
+    }
+
+    def "iterates in the order of the UTF-8 bytes of the keys"() {
+        given:
+        def keys = SharedMappings.mappings.keySet() as List
+
+        expect:
+        keys == keys.toSorted { a, b -> Arrays.compareUnsigned(a.getBytes("UTF-8"), b.getBytes("UTF-8")) }
+    }
+
+    def "finds keys that share a prefix with their neighbours"() {
+        given:
+        def keys = SharedMappings.mappings.keySet() as List
+        // consecutive keys with a long common prefix are front-coded against each other
+        def pairs = (1..<keys.size()).collect { [keys[it - 1], keys[it]] }.findAll { a, b ->
+            a.length() > 10 && b.startsWith(a.substring(0, 10))
+        }
+
+        expect:
+        pairs.size() > 100
+        pairs.every { a, b -> SharedMappings.mappings.get(a) != null && SharedMappings.mappings.get(b) != null }
+    }
+
+    def "does not find keys that are only prefixes or extensions of existing keys"() {
+        given:
+        def keys = SharedMappings.mappings.keySet()
+
+        expect:
+        keys.findAll { !keys.contains(it + "x") }.every { SharedMappings.mappings.get(it + "x") == null }
+        keys.findAll { !keys.contains(it.substring(0, it.length() - 1)) }.every { SharedMappings.mappings.get(it.substring(0, it.length() - 1)) == null }
+        SharedMappings.mappings.get("") == null
+        SharedMappings.mappings.get("￿") == null
+        !SharedMappings.mappings.containsKey(42)
+    }
+
+    def "shared mappings can be modified"() {
+        given:
+        def shipped = SharedMappings.mappings
+        SharedMappings.mappings = new CopyOnWriteMapping(shipped)
+
+        when:
+        SharedMappings.mappings.put("org.example.custom", "org.example:custom")
+        SharedMappings.mappings.remove("com.google.gson")
+        SharedMappings.mappings.keySet().removeIf { it.startsWith("org.slf4j") }
+
+        then:
+        SharedMappings.mappings.get("org.example.custom") == "org.example:custom"
+        !SharedMappings.mappings.containsKey("com.google.gson")
+        SharedMappings.mappings.keySet().every { !it.startsWith("org.slf4j") }
+        InvertedMapping.ofSharedMappings().keys("org.example:custom") == ["org.example.custom"]
+        InvertedMapping.ofSharedMappings().keys("com.google.code.gson:gson").isEmpty()
+        shipped.get("com.google.gson") == "com.google.code.gson:gson"
+        shipped.get("org.example.custom") == null
+
+        cleanup:
+        SharedMappings.mappings = shipped
+    }
+
+    def "rejects data that is not an index"() {
+        when:
+        ModuleMappingIndex.load(new ByteArrayInputStream("module.name=group:artifact".bytes))
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,210 @@
+package org.gradlex.javamodule.dependencies.test
+
+import groovy.json.JsonSlurper
+import org.gradlex.javamodule.dependencies.test.fixture.GradleBuild
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.util.jar.Attributes
+import java.util.jar.JarOutputStream
+import java.util.jar.Manifest
+
+import static org.gradle.testkit.runner.TaskOutcome.FROM_CACHE
+import static org.gradle.testkit.runner.TaskOutcome.SUCCESS
+import static org.gradle.testkit.runner.TaskOutcome.UP_TO_DATE
+
+class ModulePathAnalysisTest extends Specification {
+
+    @Delegate
+    GradleBuild build = new GradleBuild()
+
+    def "writes text and json reports and is up-to-date if the module path does not change"() {
+        given:
+        libModuleInfoFile << 'module org.gradlex.test.lib { }'
+        appModuleInfoFile << '''
+            module org.gradlex.test.app {
+                requires org.gradlex.test.lib;
+            }
+        '''
+
+        when:
+        def result = runner(':app:analyzeModulePath').build()
+
+        then:
+        result.task(':app:analyzeModulePath').outcome == SUCCESS
+        result.output.contains('org.gradlex.test.lib -> project :lib')
+        file('app/build/reports/module-path-analysis/analysis.txt').text.contains('org.gradlex.test.lib -> project :lib')
+        new JsonSlurper().parse(file('app/build/reports/module-path-analysis/analysis.json')).modules.contains(
+                [moduleName: "org.gradlex.test.lib", coordinates: "project :lib", version: null, actualModuleName: "org.gradlex.test.lib", automatic: false])
+
+        when:
+        result = runner(':app:analyzeModulePath').build()
+
+        then:
+        result.task(':app:analyzeModulePath').outcome == UP_TO_DATE
+        file('app/build/reports/module-path-analysis/analysis.txt').text.contains('org.gradlex.test.lib -> project :lib')
+    }
+
+    def "takes the report from the build cache, also if the project is moved"() {
+        given:
+        def buildCache = Files.createTempDirectory("build-cache").toFile()
+        def otherBuild = new GradleBuild()
+        [build, otherBuild].each {
+            it.settingsFile << """
+                buildCache { local { directory = file("${buildCache.absolutePath.replace('\\', '/')}") } }
+            """
+            it.libModuleInfoFile << 'module org.gradlex.test.lib { }'
+            it.appModuleInfoFile << '''
+                module org.gradlex.test.app {
+                    requires org.gradlex.test.lib;
+                }
+            '''
+        }
+        runner(':app:analyzeModulePath', '--build-cache').build()
+
+        when:
+        file('app/build').deleteDir()
+        def result = runner(':app:analyzeModulePath', '--build-cache').build()
+
+        then:
+        result.task(':app:analyzeModulePath').outcome == FROM_CACHE
+        file('app/build/reports/module-path-analysis/analysis.txt').text.contains('org.gradlex.test.lib -> project :lib')
+
+        when:
+        result = otherBuild.runner(':app:analyzeModulePath', '--build-cache').build()
+
+        then:
+        result.task(':app:analyzeModulePath').outcome == FROM_CACHE
+        otherBuild.file('app/build/reports/module-path-analysis/analysis.txt').text.contains('org.gradlex.test.lib -> project :lib')
+    }
+
+    def "does not read a Jar again that another build already read"() {
+        given:
+        def repo = Files.createTempDirectory("repo").toFile()
+        def jar = new File(repo, "org/example/transformed/1.0/transformed-1.0.jar")
+        jar.parentFile.mkdirs()
+        new File(jar.parentFile, "transformed-1.0.pom") << '''
+            <project>
+                <modelVersion>4.0.0</modelVersion>
+                <groupId>org.example</groupId>
+                <artifactId>transformed</artifactId>
+                <version>1.0</version>
+            </project>
+        '''
+        def manifest = new Manifest()
+        manifest.mainAttributes.put(Attributes.Name.MANIFEST_VERSION, "1.0")
+        manifest.mainAttributes.putValue("Automatic-Module-Name", "org.example.transformed")
+        new JarOutputStream(new FileOutputStream(jar), manifest).close()
+
+        def otherBuild = new GradleBuild()
+        [build, otherBuild].each {
+            it.settingsFile << """
+                dependencyResolutionManagement { repositories.maven("${repo.absolutePath.replace('\\', '/')}") }
+            """
+            it.appBuildFile << '''
+                javaModuleDependencies.moduleNameToGA.put("org.example.transformed", "org.example:transformed")
+                moduleInfo { version("org.example.transformed", "1.0") }
+            '''
+            it.appModuleInfoFile << '''
+                module org.gradlex.test.app {
+                    requires org.example.transformed;
+                }
+            '''
+        }
+
+        when:
+        def result = runner(':app:analyzeModulePath', '--info').build()
+
+        then:
+        result.output.contains("ModuleMetadataTransform: ${jar.absolutePath}")
+        result.output.contains('org.example.transformed -> org.example:transformed (1.0)')
+
+        when:
+        result = otherBuild.runner(':app:analyzeModulePath', '--info').build()
+
+        then:
+        result.task(':app:analyzeModulePath').outcome == SUCCESS
+        !result.output.contains("ModuleMetadataTransform: ${jar.absolutePath}")
+        result.output.contains('org.example.transformed -> org.example:transformed (1.0)')
+    }
+
+    def "re-runs if a mapping changes"() {
+        given:
+        libModuleInfoFile << 'module org.gradlex.test.lib { }'
+        appModuleInfoFile << '''
+            module org.gradlex.test.app {
+                requires org.gradlex.test.lib;
+            }
+        '''
+        runner(':app:analyzeModulePath').build()
+
+        when:
+        appBuildFile << '''
+            javaModuleDependencies.moduleNameToGA.put("org.example.unused", "org.example:unused")
+        '''
+        def result = runner(':app:analyzeModulePath').build()
+
+        then:
+        result.task(':app:analyzeModulePath').outcome == SUCCESS
+    }
+
+    def "aggregates the analysis of the declared projects in the root project"() {
+        given:
+        file("build.gradle.kts") << '''
+            plugins { id("org.gradlex.java-module-dependencies") }
+            dependencies {
+                modulePathAnalysis(project(":app"))
+                modulePathAnalysis(project(":lib"))
+            }
+        '''
+        libModuleInfoFile << 'module org.gradlex.test.lib { }'
+        appModuleInfoFile << '''
+            module org.gradlex.test.app {
+                requires org.gradlex.test.lib;
+            }
+        '''
+
+        when:
+        def result = runner(':analyzeAllModulePaths').build()
+
+        then:
+        result.task(':app:analyzeModulePath').outcome == SUCCESS
+        result.task(':lib:analyzeModulePath').outcome == SUCCESS
+        result.output.contains('[INFO] Module Paths of 2 projects analysed')
+        file('build/reports/module-path-analysis/aggregated.txt').exists()
+        file('build/reports/module-path-analysis/aggregated.json').exists()
+    }
+
+    def "aggregation skips declared projects that do not analyse their Module Path"() {
+        given:
+        settingsFile << '''
+            include("plain", "java-only")
+        '''
+        file("build.gradle.kts") << '''
+            plugins { id("org.gradlex.java-module-dependencies") }
+            dependencies {
+                modulePathAnalysis(project(":app"))
+                modulePathAnalysis(project(":lib"))
+                modulePathAnalysis(project(":plain"))
+                modulePathAnalysis(project(":java-only"))
+            }
+        '''
+        file("java-only/build.gradle.kts") << '''
+            plugins { id("java-library") }
+        '''
+        libModuleInfoFile << 'module org.gradlex.test.lib { }'
+        appModuleInfoFile << '''
+            module org.gradlex.test.app {
+                requires org.gradlex.test.lib;
+            }
+        '''
+
+        when:
+        def result = runner(':analyzeAllModulePaths').build()
+
+        then:
+        result.output.contains('[INFO] Module Paths of 2 projects analysed')
+        new JsonSlurper().parse(file('build/reports/module-path-analysis/aggregated.json')).keySet() ==
+                ['nonModules', 'wrongMappings', 'missingMappings'] as Set
+    }
+}
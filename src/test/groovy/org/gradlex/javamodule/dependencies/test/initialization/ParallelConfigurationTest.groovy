@@ -0,0 +1,62 @@
+package org.gradlex.javamodule.dependencies.test.initialization
+
+import org.gradlex.javamodule.dependencies.test.fixture.GradleBuild
+import spock.lang.Specification
+
+import static org.gradle.testkit.runner.TaskOutcome.SUCCESS
+
+class ParallelConfigurationTest extends Specification {
+
+    static final int MODULE_COUNT = 50
+
+    @Delegate
+    GradleBuild build = new GradleBuild()
+
+    def setup() {
+        settingsFile.text = '''
+            plugins { id("org.gradlex.java-module-dependencies") }
+        '''
+        appBuildFile.delete()
+        libBuildFile.delete()
+    }
+
+    def "many modules registered in settings can be configured with isolated projects"() {
+        given:
+        settingsFile << '''
+            javaModules {
+                directory("modules") {
+                    group = "org.example"
+                    plugin("java-library")
+                    plugin("java-test-fixtures")
+                }
+            }
+        '''
+        file("modules/base/src/main/java/module-info.java") << 'module org.example.base { }'
+        file("modules/base/src/testFixtures/java/module-info.java") << '''
+            module org.example.base.test.fixtures {
+                requires org.example.base;
+            }
+        '''
+        (1..MODULE_COUNT).each { i ->
+            file("modules/m$i/src/main/java/module-info.java") << """
+                module org.example.m$i {
+                    requires org.example.base;
+                    requires org.example.base.test.fixtures;
+                    ${i > 1 ? "requires org.example.m${i.intdiv(2)};" : ''}
+                }
+            """
+        }
+
+        when:
+        // isolated projects configures projects in parallel; unlike the fixture default, problems fail the build.
+        // All projects share the one ModuleInfoCache created in settings, which is read-only by then.
+        def result = runner(false, 'compileJava', '--configuration-cache', '-Dorg.gradle.unsafe.isolated-projects=true').build()
+
+        then:
+        result.task(":base:compileJava").outcome == SUCCESS
+        result.task(":base:compileTestFixturesJava").outcome == SUCCESS
+        (1..MODULE_COUNT).each { i ->
+            assert result.task(":m$i:compileJava").outcome == SUCCESS
+        }
+    }
+}
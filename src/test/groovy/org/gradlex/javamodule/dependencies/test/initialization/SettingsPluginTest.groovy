@@ -5,6 +5,7 @@ import spock.lang.Specification
 
 import static org.gradle.testkit.runner.TaskOutcome.NO_SOURCE
 import static org.gradle.testkit.runner.TaskOutcome.SUCCESS
+import static org.gradle.testkit.runner.TaskOutcome.UP_TO_DATE
 
 class SettingsPluginTest extends Specification {
 
@@ -45,6 +46,32 @@ class SettingsPluginTest extends Specification {
         result.task(":lib-x:compileJava").outcome == SUCCESS
     }
 
+    def "aggregates the Module Path analyses of all Modules in the root project"() {
+        given:
+        settingsFile << '''
+            javaModules {
+                directory(".") { plugin("java-library") }
+            }
+        '''
+        file("build.gradle.kts") << '''
+            plugins { id("org.gradlex.java-module-dependencies") }
+        '''
+        libModuleInfoFile << 'module abc.lib { }'
+        appModuleInfoFile << '''
+            module org.gradlex.test.app {
+                requires abc.lib;
+            }
+        '''
+
+        when:
+        def result = runner(':analyzeAllModulePaths').build()
+
+        then:
+        result.task(":app:analyzeModulePath").outcome == SUCCESS
+        result.task(":lib:analyzeModulePath").outcome == SUCCESS
+        result.output.contains('[INFO] Module Paths of 2 projects analysed')
+    }
+
     def "finds all modules in a directory"() {
         given:
         settingsFile << '''
@@ -67,6 +94,84 @@ class SettingsPluginTest extends Specification {
         result.task(":lib:compileJava").outcome == SUCCESS
     }
 
+    def "finds modules recursively in folders matching include patterns"() {
+        given:
+        settingsFile << '''
+            javaModules {
+                directory("products") {
+                    plugin("java-library")
+                    include("*/modules/*")
+                    exclude("legacy/**")
+                }
+            }
+        '''
+        file("products/p1/modules/lib/src/main/java/module-info.java") << 'module abc.lib { }'
+        file("products/p2/modules/app/src/main/java/module-info.java") << '''
+            module org.gradlex.test.app {
+                requires abc.lib;
+            }
+        '''
+        file("products/legacy/modules/old/src/main/java/module-info.java") << 'module abc.old { }'
+        file("products/p1/build/modules/generated/src/main/java/module-info.java") << 'module abc.generated { }'
+
+        when:
+        def result = runner(':app:compileJava').build()
+
+        then:
+        result.task(":app:compileJava").outcome == SUCCESS
+        result.task(":lib:compileJava").outcome == SUCCESS
+
+        when:
+        result = runner('projects').build()
+
+        then:
+        !result.output.contains(":old")
+        !result.output.contains(":generated")
+    }
+
+    def "fails if Modules found in different folders have the same name"() {
+        given:
+        settingsFile << '''
+            javaModules {
+                directory("products") {
+                    plugin("java-library")
+                    include("**")
+                }
+            }
+        '''
+        file("products/p1/lib/src/main/java/module-info.java") << 'module abc.p1.lib { }'
+        file("products/p2/lib/src/main/java/module-info.java") << 'module abc.p2.lib { }'
+
+        when:
+        def result = runner('projects').buildAndFail()
+
+        then:
+        result.output.contains("products${File.separator}p1${File.separator}lib' and '")
+        result.output.contains("products${File.separator}p2${File.separator}lib' have the same artifact name 'lib'")
+    }
+
+    def "Modules found in different folders can be given different names"() {
+        given:
+        settingsFile << '''
+            javaModules {
+                directory("products") {
+                    plugin("java-library")
+                    include("**")
+                    module("p2/lib") { artifact = "p2-lib" }
+                }
+            }
+        '''
+        file("products/p1/lib/src/main/java/module-info.java") << 'module abc.p1.lib { }'
+        file("products/p2/lib/src/main/java/module-info.java") << 'module abc.p2.lib { }'
+
+        when:
+        def result = runner('projects').build()
+
+        then:
+        result.output.contains("Project ':lib'")
+        result.output.contains("Project ':p2-lib'")
+    }
+
     def "configurationCacheHit"() {
         given:
         settingsFile << '''
@@ -162,7 +267,7 @@ class SettingsPluginTest extends Specification {
         result = runner.build()
 
         then:
-        result.output.contains("Calculating task graph as configuration cache cannot be reused because a build logic input of type 'ValueSourceModuleInfo' has changed.\n")
+        result.output.contains("Calculating task graph as configuration cache cannot be reused because a build logic input of type 'ValueSourceModuleInfos' has changed.\n")
     }
 
     def "automatically sets module for application plugin"() {
@@ -263,4 +368,192 @@ class SettingsPluginTest extends Specification {
         result.task(":lib:compileJava").outcome == SUCCESS
     }
 
+    def "creates the dependencies of all requires directives from the Module graph"() {
+        given:
+        settingsFile << '''
+            javaModules {
+                module("lib") {
+                    group = "org.example"
+                    plugin("java-library")
+                    plugin("java-test-fixtures")
+                }
+                module("app") {
+                    group = "org.example"
+                    plugin("java-library")
+                }
+                module("consumer") { plugin("java-library") }
+            }
+        '''
+        libModuleInfoFile << '''
+            module org.example.lib {
+                exports org.example.lib;
+            }
+        '''
+        file("lib/src/main/java/org/example/lib/Lib.java") << '''
+            package org.example.lib;
+            public class Lib { }
+        '''
+        file("lib/src/testFixtures/java/module-info.java") << '''
+            module org.example.lib.test.fixtures {
+                requires org.example.lib;
+                exports org.example.lib.fixtures;
+            }
+        '''
+        file("lib/src/testFixtures/java/org/example/lib/fixtures/Fixture.java") << '''
+            package org.example.lib.fixtures;
+            public class Fixture { }
+        '''
+        appModuleInfoFile << '''
+            module org.example.app {
+                requires transitive org.example.lib;
+                requires org.example.lib.test.fixtures;
+                exports org.example.app;
+            }
+        '''
+        file("app/src/main/java/org/example/app/App.java") << '''
+            package org.example.app;
+            public class App {
+                public org.example.lib.Lib lib() { return new org.example.lib.Lib(); }
+                public Object fixture() { return new org.example.lib.fixtures.Fixture(); }
+            }
+        '''
+        file("consumer/src/main/java/module-info.java") << '''
+            module org.example.consumer {
+                requires org.example.app;
+            }
+        '''
+        // only compiles if 'requires transitive' puts 'lib' on the compile classpath of 'consumer'
+        file("consumer/src/main/java/org/example/consumer/Consumer.java") << '''
+            package org.example.consumer;
+            public class Consumer {
+                org.example.lib.Lib lib = new org.example.app.App().lib();
+            }
+        '''
+
+        when:
+        def result = runner(false, ':consumer:compileJava',
+                '--configuration-cache', '-Dorg.gradle.unsafe.isolated-projects=true').build()
+
+        then:
+        result.task(":consumer:compileJava").outcome == SUCCESS
+        result.task(":app:compileJava").outcome == SUCCESS
+        result.task(":lib:compileTestFixturesJava").outcome == SUCCESS
+
+        when:
+        // the graph is restored from the configuration cache
+        result = runner(false, ':consumer:compileJava',
+                '--configuration-cache', '-Dorg.gradle.unsafe.isolated-projects=true').build()
+
+        then:
+        result.output.contains("Reusing configuration cache.")
+        result.task(":consumer:compileJava").outcome == UP_TO_DATE
+    }
+
+    def "creates project dependencies without accessing other projects"() {
+        given:
+        settingsFile << '''
+            include("consumer")
+            javaModules {
+                module("app") {
+                    group = "org.gradlex.test"
+                    plugin("java-library")
+                }
+                module("lib") {
+                    group = "org.gradlex.test"
+                    plugin("java-library")
+                    plugin("java-test-fixtures")
+                }
+            }
+        '''
+        libModuleInfoFile << 'module org.gradlex.test.lib { }'
+        file("lib/src/testFixtures/java/module-info.java") << 'module org.gradlex.test.lib.test.fixtures { }'
+        appModuleInfoFile << '''
+            module org.gradlex.test.app {
+                requires org.gradlex.test.lib;
+            }
+        '''
+        // project that is not registered in settings and guesses its project dependencies
+        file("consumer/build.gradle.kts") << '''
+            plugins {
+                id("org.gradlex.java-module-dependencies")
+                id("java-library")
+            }
+            group = "org.gradlex.test"
+        '''
+        file("consumer/src/main/java/module-info.java") << '''
+            module org.gradlex.test.consumer {
+                requires org.gradlex.test.lib;
+                requires org.gradlex.test.lib.test.fixtures;
+            }
+        '''
+
+        when:
+        // any cross-project access fails the build
+        def result = runner(false, ':app:compileJava', ':consumer:compileJava',
+                '--configuration-cache', '-Dorg.gradle.unsafe.isolated-projects=true').build()
+
+        then:
+        result.task(":app:compileJava").outcome == SUCCESS
+        result.task(":consumer:compileJava").outcome == SUCCESS
+        result.task(":lib:compileJava").outcome == SUCCESS
+    }
+
+    def "uses the versions platform without accessing other projects"() {
+        given:
+        settingsFile << '''
+            dependencyResolutionManagement { repositories.mavenCentral() }
+            javaModules {
+                module("app") {
+                    group = "org.gradlex.test"
+                    plugin("java-library")
+                }
+                versions("gradle/versions")
+            }
+        '''
+        file("gradle/versions/build.gradle.kts") << '''
+            moduleInfo {
+                version("org.slf4j", "2.0.16")
+            }
+        '''
+        appBuildFile << '''
+            javaModuleDependencies {
+                versionsFromPlatformAndConsistentResolution(":versions", ":app")
+            }
+        '''
+        appModuleInfoFile << '''
+            module org.gradlex.test.app {
+                requires org.slf4j;
+            }
+        '''
+
+        when:
+        // any cross-project access fails the build
+        def result = runner(false, ':app:compileJava',
+                '--configuration-cache', '-Dorg.gradle.unsafe.isolated-projects=true').build()
+
+        then:
+        result.task(":app:compileJava").outcome == SUCCESS
+    }
+
+    def "configures modules before beforeProject hooks that are registered later in settings"() {
+        given:
+        settingsFile << '''
+            javaModules {
+                module("app") { plugin("java-library") }
+                module("lib") { plugin("java-library") }
+            }
+            gradle.lifecycle.beforeProject {
+                if (path != ":") println("$path java-library=${plugins.hasPlugin("java-library")}")
+            }
+        '''
+        libModuleInfoFile << 'module abc.lib { }'
+        appModuleInfoFile << 'module abc.app { }'
+
+        when:
+        def result = runner(':app:compileJava').build()
+
+        then:
+        result.output.contains(":app java-library=true")
+        result.output.contains(":lib java-library=true")
+    }
 }